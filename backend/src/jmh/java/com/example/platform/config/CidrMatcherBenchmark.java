@@ -0,0 +1,38 @@
+package com.example.platform.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка адреса вебхука по списку ЮKassa. Запуск: ./gradlew jmh -Pjmh.includes=CidrMatcher
+ * (с -prof gc видно, что совпадение не выделяет память).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CidrMatcherBenchmark {
+
+    @Param({"185.71.77.12", "8.8.8.8", "77.75.156.35:51432", "2a02:5180:0:1::15", "[2001:db8::1]:443"})
+    public String address;
+
+    private CidrMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = CidrMatcher.compile(new YooKassaConfig().getWebhookAllowedIps());
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return matcher.matches(address);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.platform.controller.donate;
+
+import com.example.platform.config.CidrMatcher;
+import com.example.platform.config.WebhookSignatureVerifier;
+import com.example.platform.config.YooKassaConfig;
+import com.example.platform.dto.payment.PaymentNotification;
+import com.example.platform.service.payment.PaymentNotificationReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прием вебхука без записи в БД: адрес, подпись, разбор уведомления.
+ * {@code legacy} повторяет прежний путь (readTree, повторная сериализация, новый Mac, второй разбор).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebhookIngestBenchmark {
+
+    private static final String SECRET = "test_snYA5OOQgHz4HgU9KJH6sOPZdJ6LBTJU3Lv8IFylBVs";
+    private static final String PAYMENT_ID = "2f0e6f5a-000f-5000-9000-1b3a5c7e4d21";
+    private static final String TIMESTAMP = "1700000000";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CidrMatcher allowedSources;
+    private WebhookSignatureVerifier verifier;
+    private PaymentNotificationReader reader;
+    private byte[] body;
+    private String signatureHeader;
+
+    @Setup
+    public void setUp() throws Exception {
+        YooKassaConfig config = new YooKassaConfig();
+        config.setSecretKey(SECRET);
+        allowedSources = CidrMatcher.compile(config.getWebhookAllowedIps());
+        verifier = new WebhookSignatureVerifier(config);
+        reader = new PaymentNotificationReader(objectMapper);
+
+        body = ("{\"type\":\"notification\",\"event\":\"payment.succeeded\",\"object\":{"
+                + "\"id\":\"" + PAYMENT_ID + "\",\"status\":\"succeeded\",\"paid\":true,"
+                + "\"amount\":{\"value\":\"2000.00\",\"currency\":\"RUB\"},"
+                + "\"description\":\"Пожертвование\",\"metadata\":{\"donationId\":\"42\",\"fundId\":\"7\"},"
+                + "\"created_at\":\"2024-06-01T10:00:00.000Z\",\"captured_at\":\"2024-06-01T10:00:05.000Z\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        mac.update((PAYMENT_ID + "." + TIMESTAMP + ".").getBytes(StandardCharsets.UTF_8));
+        signatureHeader = "v1 " + PAYMENT_ID + " " + TIMESTAMP + " " + Base64.getEncoder().encodeToString(mac.doFinal(body));
+    }
+
+    @Benchmark
+    public PaymentNotification ingest() throws Exception {
+        if (!allowedSources.matches("185.71.76.10") || !verifier.verify(signatureHeader, body)) {
+            throw new IllegalStateException("rejected");
+        }
+        return reader.read(body);
+    }
+
+    @Benchmark
+    public PaymentNotification legacy() throws Exception {
+        String raw = new String(body, StandardCharsets.UTF_8);
+        String[] parts = signatureHeader.split("\\s+");
+        String normalized = objectMapper.writeValueAsString(objectMapper.readTree(raw));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] hmac = mac.doFinal((parts[1] + "." + parts[2] + "." + normalized).getBytes(StandardCharsets.UTF_8));
+        if (!Base64.getEncoder().encodeToString(hmac).equals(parts[3])) {
+            throw new IllegalStateException("rejected");
+        }
+        JsonNode node = objectMapper.readTree(raw);
+        return objectMapper.treeToValue(node, PaymentNotification.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.platform.service.user;
+
+import com.example.platform.model.Enum.Role;
+import com.example.platform.model.User;
+import io.github.cdimascio.dotenv.Dotenv;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки JWT на один запрос. Запуск: ./gradlew jmh -Pjmh.includes=JwtValidation
+ * {@code legacy} повторяет прежний путь фильтра: четыре разбора токена, и перед каждым — чтение .env и новый ключ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "bXktdmVyeS1zZWNyZXQta2V5LWZvci1iZW5jaG1hcmtzLW9ubHktMzItYnl0ZXM=";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET);
+
+        User user = new User();
+        user.setUsername("donor@example.com");
+        user.setDisplayName("Donor");
+        user.setRole(Role.DONOR);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        // extractUsername, extractDisplayName, затем isTokenValid: subject и expiration
+        blackhole.consume(legacyParse().getSubject());
+        blackhole.consume(legacyParse().get("displayName", String.class));
+        blackhole.consume(legacyParse().getSubject());
+        blackhole.consume(legacyParse().getExpiration());
+    }
+
+    @Benchmark
+    public Claims cached() {
+        return jwtService.parseToken(token);
+    }
+
+    private Claims legacyParse() {
+        Dotenv.configure().ignoreIfMissing().load();
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.platform.config;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Список CIDR-диапазонов IPv4/IPv6, собранный в бинарное префиксное дерево.
+ * IPv4 хранится как IPv4-mapped IPv6 (::ffff:a.b.c.d), поэтому оба вида записи адреса совпадают одинаково.
+ * Проверка адреса не создает объектов: разбор идет прямо по строке, для IPv6 используется буфер потока.
+ */
+public final class CidrMatcher {
+
+    private static final int[] IPV4_MAPPED_PREFIX = {0, 0, 0, 0, 0, 0xffff, 0, 0};
+
+    private static final ThreadLocal<int[]> HEXTETS = ThreadLocal.withInitial(() -> new int[8]);
+
+    // children[2 * node + bit] — индекс потомка или -1
+    private final int[] children;
+    private final boolean[] terminal;
+    // Узел после префикса ::ffff:0:0/96, с него начинается проверка IPv4
+    private final int ipv4Root;
+    private final boolean ipv4Covered;
+
+    private CidrMatcher(int[] children, boolean[] terminal) {
+        this.children = children;
+        this.terminal = terminal;
+
+        int node = 0;
+        boolean covered = false;
+        for (int i = 0; i < 96 && node >= 0; i++) {
+            if (terminal[node]) {
+                covered = true;
+                break;
+            }
+            node = children[2 * node + bit(IPV4_MAPPED_PREFIX, i)];
+        }
+        this.ipv4Covered = covered || (node >= 0 && terminal[node]);
+        this.ipv4Root = node;
+    }
+
+    /**
+     * Собирает дерево из записей вида {@code 185.71.76.0/27}, {@code 77.75.156.11} или {@code 2a02:5180::/32}.
+     *
+     * @throws IllegalArgumentException если запись не является адресом или диапазоном
+     */
+    public static CidrMatcher compile(Collection<String> ranges) {
+        Builder builder = new Builder();
+        int[] hextets = new int[8];
+        for (String range : ranges) {
+            String entry = range.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int slash = entry.indexOf('/');
+            int end = slash < 0 ? entry.length() : slash;
+
+            int maxPrefix;
+            int offset;
+            if (entry.lastIndexOf(':', end) < 0) {
+                long address = parseIpv4(entry, 0, end);
+                if (address < 0) {
+                    throw new IllegalArgumentException("Invalid IPv4 range: " + range);
+                }
+                System.arraycopy(IPV4_MAPPED_PREFIX, 0, hextets, 0, 6);
+                hextets[6] = (int) (address >>> 16);
+                hextets[7] = (int) (address & 0xffff);
+                maxPrefix = 32;
+                offset = 96;
+            } else {
+                if (!parseIpv6(entry, 0, end, hextets)) {
+                    throw new IllegalArgumentException("Invalid IPv6 range: " + range);
+                }
+                maxPrefix = 128;
+                offset = 0;
+            }
+
+            int prefix = maxPrefix;
+            if (slash >= 0) {
+                try {
+                    prefix = Integer.parseInt(entry.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid prefix length: " + range, e);
+                }
+                if (prefix < 0 || prefix > maxPrefix) {
+                    throw new IllegalArgumentException("Invalid prefix length: " + range);
+                }
+            }
+            builder.insert(hextets, offset + prefix);
+        }
+        return builder.build();
+    }
+
+    public boolean matches(CharSequence address) {
+        return address != null && matches(address, 0, address.length());
+    }
+
+    /**
+     * Проверяет адрес в {@code address[start, end)}. Допускаются пробелы по краям, порт ({@code 1.2.3.4:443},
+     * {@code [::1]:443}) и зона IPv6 ({@code fe80::1%eth0}). Некорректная строка не совпадает ни с чем.
+     */
+    public boolean matches(CharSequence address, int start, int end) {
+        while (start < end && address.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && address.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        if (address.charAt(start) == '[') {
+            int close = indexOf(address, ']', start, end);
+            if (close < 0) {
+                return false;
+            }
+            start++;
+            end = close;
+        }
+
+        int colons = 0;
+        int lastColon = -1;
+        boolean dotted = false;
+        for (int i = start; i < end; i++) {
+            char c = address.charAt(i);
+            if (c == ':') {
+                colons++;
+                lastColon = i;
+            } else if (c == '.') {
+                dotted = true;
+            } else if (c == '%') {
+                end = i;
+                break;
+            }
+        }
+
+        if (colons == 0 || (colons == 1 && dotted)) {
+            if (colons == 1 && !isPort(address, lastColon + 1, end)) {
+                return false;
+            }
+            long ipv4 = parseIpv4(address, start, colons == 0 ? end : lastColon);
+            return ipv4 >= 0 && matchesIpv4((int) ipv4);
+        }
+
+        int[] hextets = HEXTETS.get();
+        return parseIpv6(address, start, end, hextets) && matchesIpv6(hextets);
+    }
+
+    private boolean matchesIpv4(int address) {
+        if (ipv4Covered) {
+            return true;
+        }
+        int node = ipv4Root;
+        for (int i = 31; i >= 0 && node >= 0; i--) {
+            if (terminal[node]) {
+                return true;
+            }
+            node = children[2 * node + ((address >>> i) & 1)];
+        }
+        return node >= 0 && terminal[node];
+    }
+
+    private boolean matchesIpv6(int[] hextets) {
+        int node = 0;
+        for (int i = 0; i < 128 && node >= 0; i++) {
+            if (terminal[node]) {
+                return true;
+            }
+            node = children[2 * node + bit(hextets, i)];
+        }
+        return node >= 0 && terminal[node];
+    }
+
+    private static int bit(int[] hextets, int index) {
+        return (hextets[index >> 4] >>> (15 - (index & 15))) & 1;
+    }
+
+    private static boolean isPort(CharSequence s, int start, int end) {
+        if (start == end || end - start > 5) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    // Адрес как беззнаковое 32-битное число или -1
+    static long parseIpv4(CharSequence s, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int i = start;
+        while (octets < 4) {
+            int value = 0;
+            int digits = 0;
+            while (i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                value = value * 10 + (s.charAt(i) - '0');
+                if (++digits > 3 || value > 255) {
+                    return -1;
+                }
+                i++;
+            }
+            if (digits == 0) {
+                return -1;
+            }
+            result = (result << 8) | value;
+            octets++;
+            if (octets < 4) {
+                if (i >= end || s.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+        return i == end ? result : -1;
+    }
+
+    // Разбирает IPv6 (включая :: и хвост в виде IPv4) в восемь 16-битных групп
+    static boolean parseIpv6(CharSequence s, int start, int end, int[] out) {
+        int count = 0;
+        int gap = -1;
+        int i = start;
+
+        if (i < end && s.charAt(i) == ':') {
+            if (i + 1 >= end || s.charAt(i + 1) != ':') {
+                return false;
+            }
+            gap = 0;
+            i += 2;
+        }
+
+        while (i < end) {
+            if (count == 8) {
+                return false;
+            }
+            int groupStart = i;
+            int value = 0;
+            while (i < end) {
+                int digit = hexDigit(s.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                if (i - groupStart == 4) {
+                    return false;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+
+            if (i < end && s.charAt(i) == '.') {
+                if (count > 6) {
+                    return false;
+                }
+                long ipv4 = parseIpv4(s, groupStart, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                out[count++] = (int) (ipv4 >>> 16);
+                out[count++] = (int) (ipv4 & 0xffff);
+                break;
+            }
+            if (i == groupStart) {
+                return false;
+            }
+            out[count++] = value;
+            if (i == end) {
+                break;
+            }
+            if (s.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < end && s.charAt(i) == ':') {
+                if (gap >= 0) {
+                    return false;
+                }
+                gap = count;
+                i++;
+            } else if (i == end) {
+                return false;
+            }
+        }
+
+        if (gap < 0) {
+            return count == 8;
+        }
+        if (count == 8) {
+            return false;
+        }
+        int tail = count - gap;
+        System.arraycopy(out, gap, out, 8 - tail, tail);
+        Arrays.fill(out, gap, 8 - tail, 0);
+        return true;
+    }
+
+    private static final class Builder {
+
+        private int[] children = new int[64];
+        private boolean[] terminal = new boolean[32];
+        private int size = 1;
+
+        Builder() {
+            Arrays.fill(children, -1);
+        }
+
+        void insert(int[] hextets, int prefixLength) {
+            int node = 0;
+            for (int i = 0; i < prefixLength; i++) {
+                if (terminal[node]) {
+                    // Уже покрыт более широким диапазоном
+                    return;
+                }
+                int slot = 2 * node + bit(hextets, i);
+                if (children[slot] < 0) {
+                    // newNode() может заменить массив, поэтому сначала создаем узел
+                    int child = newNode();
+                    children[slot] = child;
+                }
+                node = children[slot];
+            }
+            terminal[node] = true;
+        }
+
+        private int newNode() {
+            if (size == terminal.length) {
+                int oldLength = children.length;
+                children = Arrays.copyOf(children, oldLength * 2);
+                Arrays.fill(children, oldLength, children.length, -1);
+                terminal = Arrays.copyOf(terminal, terminal.length * 2);
+            }
+            return size++;
+        }
+
+        CidrMatcher build() {
+            return new CidrMatcher(Arrays.copyOf(children, 2 * size), Arrays.copyOf(terminal, size));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.platform.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Адрес клиента с учетом nginx: заголовкам верим, только если соединение пришло от доверенного прокси.
+ * Бин для обычных запросов (вход, refresh) берет прокси из security.client-ip.trusted-proxies;
+ * у вебхуков ЮKassa свой список в {@link WebhookSourceResolver}.
+ */
+@Component
+public class ClientIpResolver {
+
+    private final CidrMatcher trustedProxies;
+
+    public ClientIpResolver(@Value("${security.client-ip.trusted-proxies:127.0.0.0/8,::1,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+                            List<String> trustedProxies) {
+        this.trustedProxies = CidrMatcher.compile(trustedProxies);
+    }
+
+    /**
+     * X-Forwarded-For читается справа налево до первого адреса, который не является нашим прокси, —
+     * левые элементы может подставить сам клиент.
+     */
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustedProxies.matches(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null) {
+            int end = forwardedFor.length();
+            while (end > 0) {
+                int comma = forwardedFor.lastIndexOf(',', end - 1);
+                if (!trustedProxies.matches(forwardedFor, comma + 1, end)) {
+                    return forwardedFor.substring(comma + 1, end).trim();
+                }
+                end = Math.max(comma, 0);
+            }
+        }
+
+        String realIp = request.getHeader("X-Real-IP");
+        return realIp != null ? realIp.trim() : remoteAddr;
+    }
+}
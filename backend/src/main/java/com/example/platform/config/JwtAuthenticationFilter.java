@@ -3,14 +3,21 @@ package com.example.platform.config;
 import com.example.platform.CustomUserDetails;
 import com.example.platform.model.User;
 import com.example.platform.service.user.JwtService;
+import com.example.platform.service.user.TokenRevocationService;
+import com.example.platform.service.user.UserRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -19,6 +26,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter
@@ -29,9 +38,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
 
     private final UserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    private final UserRevocationService revocationService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    // Принципал из claims без загрузки пользователя; отключенные пользователи отсекаются по UserRevocationService
+    @Value("${security.jwt.stateless:false}")
+    private boolean stateless;
+
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   UserRevocationService revocationService,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -47,39 +68,86 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
             return;
         }
 
-        final String jwt  = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwt);
-        final String displayName = jwtService.extractDisplayName(jwt);
+        long started = System.nanoTime();
+        try {
+            authenticateToken(request, authHeader.substring(7));
+        } finally {
+            RequestTimings.record(request, RequestTimings.JWT, started);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticateToken(HttpServletRequest request, String jwt) {
+        long started = System.nanoTime();
+        final Claims claims;
+        try {
+            claims = jwtService.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Invalid JWT: {}", e.getMessage());
+            return;
+        } finally {
+            RequestTimings.record(request, RequestTimings.JWT_PARSE, started);
+        }
+
+        started = System.nanoTime();
+        boolean revoked = tokenRevocationService.isRevoked(claims);
+        RequestTimings.record(request, RequestTimings.JWT_REVOCATION, started);
+        if (revoked) {
+            logger.debug("Token {} is revoked", claims.getId());
+            return;
+        }
+        final String username = claims.getSubject();
+        final String displayName = claims.get("displayName", String.class);
         logger.debug("Extracted username: {}, displayName: {}", username, displayName);
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         logger.debug("Current authentication: {}", authentication);
 
         if(username != null && authentication == null) {
-            logger.debug("Attempting to authenticate user: {}", username);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            logger.debug("Loaded user details: {}", userDetails);
-
-            if(jwtService.isTokenValid(jwt, userDetails)) {
-                logger.debug("Token is valid for user: {}", username);
-                request.setAttribute("displayName", displayName);
-                // Get the actual User object from CustomUserDetails
-                User user = ((CustomUserDetails) userDetails).getUser();
-                logger.debug("Retrieved User object: id={}, username={}, role={}", 
-                    user.getId(), user.getUsername(), user.getRole());
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        user, null, userDetails.getAuthorities()
-                );
-                authenticationToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                logger.debug("Authentication token set in SecurityContext");
+            User statelessUser = stateless ? jwtService.toPrincipal(claims) : null;
+            if (statelessUser != null) {
+                if (revocationService.isRevoked(statelessUser.getId())) {
+                    logger.debug("User {} is disabled, token rejected", username);
+                } else {
+                    request.setAttribute("displayName", displayName);
+                    authenticate(request, statelessUser,
+                            List.of(new SimpleGrantedAuthority("ROLE_" + statelessUser.getRole().name())));
+                    logger.debug("Authenticated user {} from token claims", username);
+                }
             } else {
-                logger.debug("Token validation failed for user: {}", username);
+                started = System.nanoTime();
+                authenticateFromDatabase(request, username, displayName, claims);
+                RequestTimings.record(request, RequestTimings.JWT_USER_LOOKUP, started);
             }
         }
+    }
 
-        filterChain.doFilter(request, response);
+    private void authenticateFromDatabase(HttpServletRequest request, String username, String displayName, Claims claims) {
+        logger.debug("Attempting to authenticate user: {}", username);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        logger.debug("Loaded user details: {}", userDetails);
+
+        if(userDetails.isEnabled() && jwtService.isTokenValid(claims, userDetails)) {
+            logger.debug("Token is valid for user: {}", username);
+            request.setAttribute("displayName", displayName);
+            // Get the actual User object from CustomUserDetails
+            User user = ((CustomUserDetails) userDetails).getUser();
+            logger.debug("Retrieved User object: id={}, username={}, role={}", 
+                user.getId(), user.getUsername(), user.getRole());
+            authenticate(request, user, userDetails.getAuthorities());
+            logger.debug("Authentication token set in SecurityContext");
+        } else {
+            logger.debug("Token validation failed for user: {}", username);
+        }
+    }
+
+    private void authenticate(HttpServletRequest request, User user, Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                user, null, authorities
+        );
+        authenticationToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
     }
 }
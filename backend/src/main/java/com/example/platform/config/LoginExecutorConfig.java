@@ -0,0 +1,23 @@
+package com.example.platform.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class LoginExecutorConfig {
+
+    // Проверка BCrypt занимает ядро на сотни миллисекунд: отдельный пул с ограниченной очередью,
+    // чтобы всплеск входов не занимал потоки Tomcat. Переполнение очереди — сразу 429
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor(@Value("${security.login.threads:4}") int threads,
+                                                @Value("${security.login.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        return executor;
+    }
+}
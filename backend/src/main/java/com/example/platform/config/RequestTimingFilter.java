@@ -0,0 +1,106 @@
+package com.example.platform.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоит прямо перед цепочкой Spring Security: засекает запрос, а после ответа пишет фазы из {@link RequestTimings}
+ * в таймер security.request.phase с тегами phase и uri (шаблон маршрута).
+ * Администратор может запросить разбивку в заголовке Server-Timing, передав {@value #DEBUG_HEADER}: 1.
+ * Тело таких ответов буферизуется, чтобы заголовок можно было добавить после обработчика; обертку ставит
+ * {@link SecurityPhaseFilter} после авторизации, поэтому анонимный запрос с заголовком ничего не буферизует.
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Timing";
+
+    private static final String TIMER = "security.request.phase";
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Long-poll и вход завершаются во втором (async) проходе, там и пишем итог
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isAsyncDispatch(request)) {
+            request.setAttribute(RequestTimings.ATTRIBUTE, new RequestTimings(System.nanoTime()));
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                finish(request);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request) throws IOException {
+        RequestTimings timings = RequestTimings.of(request);
+        if (timings == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long handlerStart = timings.mark(SecurityPhaseFilter.HANDLER_START);
+        if (handlerStart != null) {
+            timings.add(RequestTimings.HANDLER, now - handlerStart);
+        } else {
+            // Запрос отклонен внутри цепочки безопасности
+            timings.add(RequestTimings.SECURITY, now - timings.startedAt());
+        }
+        timings.add(RequestTimings.TOTAL, now - timings.startedAt());
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+        Map<String, Long> phases = timings.phases();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            Timer.builder(TIMER)
+                    .tag("phase", phase.getKey())
+                    .tag("uri", route)
+                    .register(meterRegistry)
+                    .record(phase.getValue(), TimeUnit.NANOSECONDS);
+        }
+
+        ContentCachingResponseWrapper cached = timings.debugResponse();
+        if (cached != null) {
+            cached.setHeader("Server-Timing", serverTiming(phases));
+            cached.copyBodyToResponse();
+        }
+    }
+
+    // Формат Server-Timing: jwt-parse;dur=0.084, handler;dur=12.310 (миллисекунды)
+    private static String serverTiming(Map<String, Long> phases) {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append(phase.getKey().replace('.', '-').replace('_', '-'))
+                    .append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.3f", phase.getValue() / 1_000_000.0));
+        }
+        return header.toString();
+    }
+}
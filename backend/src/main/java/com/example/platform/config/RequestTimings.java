@@ -0,0 +1,78 @@
+package com.example.platform.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Длительности фаз одного запроса (цепочка безопасности, шаги JWT, @PreAuthorize, обработчик), в наносекундах.
+ * Живет в атрибуте запроса; {@link RequestTimingFilter} в конце пишет их в Micrometer с шаблоном маршрута.
+ */
+public final class RequestTimings {
+
+    static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    public static final String SECURITY = "security";
+    public static final String JWT = "jwt";
+    public static final String JWT_PARSE = "jwt.parse";
+    public static final String JWT_REVOCATION = "jwt.revocation";
+    public static final String JWT_USER_LOOKUP = "jwt.user_lookup";
+    public static final String AUTHORIZATION = "authorization";
+    public static final String METHOD_SECURITY = "method_security";
+    public static final String HANDLER = "handler";
+    public static final String TOTAL = "total";
+
+    private final long startedAt;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+    private ContentCachingResponseWrapper debugResponse;
+
+    RequestTimings(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Добавляет к фазе время с момента {@code startNanos}. Без {@link RequestTimingFilter} ничего не делает.
+     */
+    public static void record(HttpServletRequest request, String phase, long startNanos) {
+        RequestTimings timings = (RequestTimings) request.getAttribute(ATTRIBUTE);
+        if (timings != null) {
+            timings.add(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    static RequestTimings of(HttpServletRequest request) {
+        return (RequestTimings) request.getAttribute(ATTRIBUTE);
+    }
+
+    synchronized void add(String phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    synchronized void mark(String name, long nanos) {
+        marks.put(name, nanos);
+    }
+
+    synchronized Long mark(String name) {
+        return marks.get(name);
+    }
+
+    long startedAt() {
+        return startedAt;
+    }
+
+    synchronized Map<String, Long> phases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    // Буфер ответа для Server-Timing; есть только у запросов администратора с отладочным заголовком
+    ContentCachingResponseWrapper debugResponse() {
+        return debugResponse;
+    }
+
+    void setDebugResponse(ContentCachingResponseWrapper debugResponse) {
+        this.debugResponse = debugResponse;
+    }
+}
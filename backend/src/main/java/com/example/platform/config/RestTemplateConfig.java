@@ -1,15 +1,81 @@
 package com.example.platform.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.HttpsSupport;
+import org.apache.hc.core5.http.ssl.TLS;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import javax.net.ssl.HostnameVerifier;
+
 @Configuration
 public class RestTemplateConfig {
 
+    /**
+     * Клиент ЮKassa: пул keep-alive соединений с ограничением на хост и таймаутами,
+     * чтобы зависший шлюз не держал поток бесконечно.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager yooKassaConnectionManager(YooKassaConfig config, MeterRegistry meterRegistry) {
+        // Проверка имени хоста выполняется один раз на TLS-рукопожатие, поэтому по ней и считаем рукопожатия
+        Counter handshakes = Counter.builder("yookassa.tls.handshakes")
+                .description("TLS handshakes with the YooKassa API")
+                .register(meterRegistry);
+        HostnameVerifier defaultVerifier = HttpsSupport.getDefaultHostnameVerifier();
+        HostnameVerifier countingVerifier = (host, session) -> {
+            handshakes.increment();
+            return defaultVerifier.verify(host, session);
+        };
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setTlsSocketStrategy(ClientTlsStrategyBuilder.create()
+                        .setTlsVersions(TLS.V_1_3, TLS.V_1_2)
+                        .setHostnameVerifier(countingVerifier)
+                        .buildClassic())
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(config.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(config.getReadTimeout()))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "yookassa").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient yooKassaHttpClient(PoolingHttpClientConnectionManager yooKassaConnectionManager, YooKassaConfig config) {
+        return HttpClients.custom()
+                .setConnectionManager(yooKassaConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(config.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(config.getReadTimeout()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .evictExpiredConnections()
+                .disableAutomaticRetries()
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate yooKassaRestTemplate(CloseableHttpClient yooKassaHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(yooKassaHttpClient));
     }
 
 }
@@ -1,27 +1,40 @@
 package com.example.platform.config;
 
 
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 
 @Configuration
 @EnableWebSecurity
+// @PreAuthorize подключается своим советником ниже, чтобы замерять проверки
+@EnableMethodSecurity(prePostEnabled = false)
 public class SecurityConfig {
 
+    static final int DEFAULT_BCRYPT_COST = 14;
+
     private final UserDetailsService userDetailsService;
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -39,27 +52,51 @@ public class SecurityConfig {
                 .authorizeHttpRequests(
                         request -> request
                                 .requestMatchers("/api/organizers/**").permitAll()
-                                .requestMatchers("/register", "/login").permitAll()
+                                .requestMatchers("/register", "/login", "/token/refresh").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/v1/payments/notifications").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/funds").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/funds/{id}").permitAll()
                                 .requestMatchers(HttpMethod.GET, "/api/funds/{id}/image").permitAll()
+                                // Служебные операции администратора
+                                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                                 .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                // /logout обрабатывает UserController: отзывает JWT вместо очистки сессии
+                .logout(AbstractHttpConfigurer::disable)
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Отметки для RequestTimingFilter: фазы authorization и security целиком
+                .addFilterBefore(SecurityPhaseFilter.beforeAuthorization(), AuthorizationFilter.class)
+                .addFilterAfter(SecurityPhaseFilter.afterAuthorization(), AuthorizationFilter.class);
         return http.build();
     }
 
+    // Тот же менеджер @PreAuthorize, что и по умолчанию, с фазой method_security для RequestTimingFilter
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor timedPreAuthorize() {
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(
+                new TimedAuthorizationManager<>(new PreAuthorizeAuthorizationManager()));
+    }
+
+    // Хеши дешевле настроенной стоимости пересчитываются при следующем успешном входе, дороже — остаются как есть.
+    // Стоимость ниже 14 включается только явно через security.password.bcrypt-allow-lower-cost
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder(14);
+    public BCryptPasswordEncoder bCryptPasswordEncoder(@Value("${security.password.bcrypt-cost:14}") int cost,
+                                                       @Value("${security.password.bcrypt-allow-lower-cost:false}") boolean allowLowerCost) {
+        if (cost < DEFAULT_BCRYPT_COST && !allowLowerCost) {
+            throw new IllegalStateException("BCrypt cost " + cost + " is below " + DEFAULT_BCRYPT_COST
+                    + "; set security.password.bcrypt-allow-lower-cost=true to use it");
+        }
+        return new BCryptPasswordEncoder(cost);
     }
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(BCryptPasswordEncoder bCryptPasswordEncoder,
+                                                         UserDetailsPasswordService userDetailsPasswordService) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(bCryptPasswordEncoder());
+        provider.setPasswordEncoder(bCryptPasswordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return provider;
     }
 
@@ -0,0 +1,74 @@
+package com.example.platform.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Отметки внутри цепочки Spring Security: перед AuthorizationFilter и после него.
+ * Вторая отметка закрывает фазы authorization и security и, если запрос прислал администратор
+ * с {@link RequestTimingFilter#DEBUG_HEADER}, подменяет ответ буфером для заголовка Server-Timing.
+ */
+public class SecurityPhaseFilter extends GenericFilterBean {
+
+    static final String HANDLER_START = "handler.start";
+    private static final String AUTHORIZATION_START = "authorization.start";
+
+    private final boolean end;
+
+    private SecurityPhaseFilter(boolean end) {
+        this.end = end;
+    }
+
+    public static SecurityPhaseFilter beforeAuthorization() {
+        return new SecurityPhaseFilter(false);
+    }
+
+    public static SecurityPhaseFilter afterAuthorization() {
+        return new SecurityPhaseFilter(true);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        RequestTimings timings = RequestTimings.of(httpRequest);
+        ServletResponse responseToUse = response;
+        // Цепочка повторяется и на async/error dispatch, фазы считаем только в первом проходе
+        if (timings != null && request.getDispatcherType() == DispatcherType.REQUEST) {
+            long now = System.nanoTime();
+            if (end) {
+                Long authorizationStart = timings.mark(AUTHORIZATION_START);
+                if (authorizationStart != null) {
+                    timings.add(RequestTimings.AUTHORIZATION, now - authorizationStart);
+                }
+                timings.add(RequestTimings.SECURITY, now - timings.startedAt());
+                if (httpRequest.getHeader(RequestTimingFilter.DEBUG_HEADER) != null && isAdmin()) {
+                    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper((HttpServletResponse) response);
+                    timings.setDebugResponse(wrapper);
+                    responseToUse = wrapper;
+                }
+                timings.mark(HANDLER_START, System.nanoTime());
+            } else {
+                timings.mark(AUTHORIZATION_START, now);
+            }
+        }
+        chain.doFilter(request, responseToUse);
+    }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.platform.config;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * Обертка над менеджером авторизации методов: время каждой проверки добавляется к фазе
+ * {@link RequestTimings#METHOD_SECURITY} текущего запроса. Вне HTTP-запроса просто делегирует.
+ */
+class TimedAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private final AuthorizationManager<T> delegate;
+
+    TimedAuthorizationManager(AuthorizationManager<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        long start = System.nanoTime();
+        try {
+            return delegate.check(authentication, object);
+        } finally {
+            if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+                RequestTimings.record(attributes.getRequest(), RequestTimings.METHOD_SECURITY, start);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.platform.config;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Проверка подписи вебхука {@code v1 <paymentId> <timestamp> <base64(HMAC-SHA256)>}.
+ * Подписывается {@code paymentId.timestamp.} плюс тело запроса байт в байт, без повторной сериализации JSON.
+ */
+@Component
+public class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte DOT = '.';
+
+    // Mac не потокобезопасен; инициализируем ключом один раз на поток
+    private final ThreadLocal<Mac> macs;
+
+    public WebhookSignatureVerifier(YooKassaConfig config) {
+        SecretKeySpec key = new SecretKeySpec(config.getSecretKey().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    public boolean verify(String signatureHeader, byte[] body) {
+        if (signatureHeader == null || body == null) {
+            return false;
+        }
+        String[] parts = signatureHeader.trim().split("\\s+");
+        if (parts.length != 4 || !"v1".equals(parts[0])) {
+            return false;
+        }
+
+        byte[] expected;
+        try {
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        Mac mac = macs.get();
+        mac.update(parts[1].getBytes(StandardCharsets.US_ASCII));
+        mac.update(DOT);
+        mac.update(parts[2].getBytes(StandardCharsets.US_ASCII));
+        mac.update(DOT);
+        byte[] actual = mac.doFinal(body);
+
+        // Сравнение за постоянное время, чтобы не подсказывать подпись по задержке ответа
+        return MessageDigest.isEqual(actual, expected);
+    }
+}
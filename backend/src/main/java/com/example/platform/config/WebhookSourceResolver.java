@@ -0,0 +1,29 @@
+package com.example.platform.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Определяет адрес отправителя вебхука и проверяет его по списку ЮKassa.
+ * Списки из {@link YooKassaConfig} компилируются один раз при старте.
+ */
+@Component
+public class WebhookSourceResolver {
+
+    private final CidrMatcher allowedSources;
+    private final ClientIpResolver clientIpResolver;
+
+    public WebhookSourceResolver(YooKassaConfig config) {
+        this.allowedSources = CidrMatcher.compile(config.getWebhookAllowedIps());
+        this.clientIpResolver = new ClientIpResolver(config.getWebhookTrustedProxies());
+    }
+
+    public boolean isAllowed(String clientIp) {
+        return allowedSources.matches(clientIp);
+    }
+
+    // Доверенные прокси — yookassa.webhook-trusted-proxies
+    public String resolveClientIp(HttpServletRequest request) {
+        return clientIpResolver.resolve(request);
+    }
+}
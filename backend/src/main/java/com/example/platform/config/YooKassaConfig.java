@@ -7,6 +7,9 @@ import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.List;
+
 
 @Component
 //@Configuration
@@ -16,6 +19,20 @@ public class YooKassaConfig {
     private String shopId;
     private String secretKey;
     private boolean testMode = true;
+    private String apiUrl = "https://api.yookassa.ru/v3";
+
+    // Настройки HTTP-клиента к API ЮKassa
+    private Duration connectTimeout = Duration.ofSeconds(3);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration poolAcquireTimeout = Duration.ofSeconds(2);
+    private int maxConnections = 20;
+
+    // Адреса, с которых ЮKassa отправляет уведомления, и наши прокси, которым доверяем X-Forwarded-For
+    private List<String> webhookAllowedIps = List.of(
+            "185.71.76.0/27", "185.71.77.0/27", "77.75.153.0/25", "77.75.156.11",
+            "77.75.156.35", "77.75.154.128/25", "2a02:5180::/32");
+    private List<String> webhookTrustedProxies = List.of(
+            "127.0.0.0/8", "::1", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16");
 
 
     public YooKassaConfig() {
@@ -53,4 +70,60 @@ public class YooKassaConfig {
     public void setTestMode(boolean testMode) {
         this.testMode = testMode;
     }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getPoolAcquireTimeout() {
+        return poolAcquireTimeout;
+    }
+
+    public void setPoolAcquireTimeout(Duration poolAcquireTimeout) {
+        this.poolAcquireTimeout = poolAcquireTimeout;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public void setApiUrl(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+
+    public List<String> getWebhookAllowedIps() {
+        return webhookAllowedIps;
+    }
+
+    public void setWebhookAllowedIps(List<String> webhookAllowedIps) {
+        this.webhookAllowedIps = webhookAllowedIps;
+    }
+
+    public List<String> getWebhookTrustedProxies() {
+        return webhookTrustedProxies;
+    }
+
+    public void setWebhookTrustedProxies(List<String> webhookTrustedProxies) {
+        this.webhookTrustedProxies = webhookTrustedProxies;
+    }
 }
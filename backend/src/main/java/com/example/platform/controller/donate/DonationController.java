@@ -6,10 +6,13 @@ import com.example.platform.dto.payment.PaymentNotification;
 import com.example.platform.model.User;
 import com.example.platform.service.donate.DonationService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 
@@ -17,6 +20,10 @@ import java.util.List;
 @RequestMapping("/api/v1/donations")
 public class DonationController {
 
+    private static final Logger logger = LoggerFactory.getLogger(DonationController.class);
+
+    private static final long MAX_CONFIRMATION_WAIT_MS = 30000;
+
     private final DonationService donationService;
 
     public DonationController(DonationService donationService) {
@@ -28,13 +35,23 @@ public class DonationController {
     public ResponseEntity<DonationResponse> createDonation(
             @Valid @RequestBody DonationRequest request,
             @AuthenticationPrincipal User user) {
-        System.out.println("Creating donation for user: " + (user != null ? user.getId() : "null"));
+        logger.debug("Creating donation for user: {}", user != null ? user.getId() : null);
         if (user == null) {
             throw new RuntimeException("User not authenticated");
         }
         return ResponseEntity.ok(donationService.createDonation(request, user));
     }
 
+    // Long-poll: ответ приходит, как только диспетчер получил ссылку оплаты от ЮKassa, или по таймауту
+    @GetMapping("/{donationId}/confirmation")
+    @PreAuthorize("hasRole('DONOR')")
+    public DeferredResult<DonationResponse> awaitConfirmation(
+            @PathVariable Long donationId,
+            @RequestParam(defaultValue = "25000") long timeoutMs,
+            @AuthenticationPrincipal User user) {
+        return donationService.awaitConfirmation(donationId, user, Math.min(timeoutMs, MAX_CONFIRMATION_WAIT_MS));
+    }
+
     @GetMapping("/fund/{fundId}")
     @PreAuthorize("hasRole('OWNER') or hasRole('ADMIN')")
     public ResponseEntity<List<DonationResponse>> getFundDonations(@PathVariable Long fundId) {
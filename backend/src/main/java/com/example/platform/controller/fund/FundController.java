@@ -35,7 +35,11 @@ public class FundController {
     @PostMapping("/create")
     @PreAuthorize("hasAnyRole('ADMIN', 'OWNER')")
     @ResponseStatus(HttpStatus.CREATED)
-    public FundResponse createFund(@Valid @RequestPart FundRequest fundRequest, @RequestParam MultipartFile imageFile) throws IOException {
+    public FundResponse createFund(@Valid @RequestPart FundRequest fundRequest, @RequestParam(required = false) MultipartFile imageFile) throws IOException {
+        // Изображение приходит файлом или идентификатором завершенной загрузки
+        if ((imageFile == null || imageFile.isEmpty()) && fundRequest.getImageUploadId() == null) {
+            throw new IllegalStateException("Image is required");
+        }
 
         return fundService.createFund(fundRequest, imageFile);
     }
@@ -62,7 +66,7 @@ public class FundController {
 
 
     @GetMapping("/my-funds")
-    @PreAuthorize("hasRole('OWNER')")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OWNER')")
     public List<FundResponse> getMyOwnerFunds() {
         return fundService.getFundsByCurrentOwner();
     }
@@ -12,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -59,15 +60,15 @@ public class FundReportController {
     }
 
     @GetMapping("/{reportId}/photos/{photoId}")
-    public ResponseEntity<byte[]> getReportPhoto(
+    public ResponseEntity<StreamingResponseBody> getReportPhoto(
             @PathVariable Long fundId,
             @PathVariable Long reportId,
             @PathVariable Long photoId
     ) {
         var photo = fundReportService.getReportPhoto(fundId, reportId, photoId);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + photo.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(photo.getFileType()))
-                .body(photo.getData());
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + photo.fileName() + "\"")
+                .contentType(MediaType.parseMediaType(photo.fileType()))
+                .body(out -> fundReportService.writeReportPhotoData(photo.id(), out));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.platform.controller.upload;
+
+import com.example.platform.dto.upload.CreateUploadRequest;
+import com.example.platform.dto.upload.UploadSessionResponse;
+import com.example.platform.model.User;
+import com.example.platform.service.upload.UploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Возобновляемая загрузка: POST создает сессию, PUT ?offset= дописывает фрагмент (тело — сырые байты),
+ * GET возвращает принятое смещение после обрыва, POST /complete сверяет SHA-256.
+ * Идентификатор завершенной загрузки передается в запросе создания отчета или фонда.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    private final UploadService uploadService;
+
+    public UploadController(UploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public UploadSessionResponse create(@Valid @RequestBody CreateUploadRequest request,
+                                        @AuthenticationPrincipal User user) {
+        return uploadService.create(request, user);
+    }
+
+    @GetMapping("/{id}")
+    public UploadSessionResponse get(@PathVariable String id, @AuthenticationPrincipal User user) {
+        return uploadService.get(id, user);
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public UploadSessionResponse appendChunk(@PathVariable String id,
+                                             @RequestParam long offset,
+                                             @AuthenticationPrincipal User user,
+                                             HttpServletRequest request) throws IOException {
+        return uploadService.appendChunk(id, user, offset, request.getInputStream());
+    }
+
+    @PostMapping("/{id}/complete")
+    public UploadSessionResponse complete(@PathVariable String id, @AuthenticationPrincipal User user) throws IOException {
+        return uploadService.complete(id, user);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void abort(@PathVariable String id, @AuthenticationPrincipal User user) throws IOException {
+        uploadService.abort(id, user);
+    }
+}
@@ -1,21 +1,70 @@
 package com.example.platform.controller.user;
 
+import com.example.platform.dto.donate.DonationResponse;
+import com.example.platform.dto.donate.RefundRequest;
+import com.example.platform.dto.fund.BalanceDriftReport;
+import com.example.platform.dto.fund.FundBalanceResponse;
+import com.example.platform.dto.fund.LedgerAdjustmentRequest;
+import com.example.platform.dto.payment.NotificationInboxEntryResponse;
+import com.example.platform.model.ReconciliationDiscrepancy;
+import com.example.platform.model.ReconciliationReport;
+import com.example.platform.service.donate.DonationService;
+import com.example.platform.service.fund.FundBalanceDriftService;
+import com.example.platform.service.fund.FundLedgerService;
+import com.example.platform.service.fund.FundService;
 import com.example.platform.service.fund.FundStatusUpdater;
+import com.example.platform.service.payment.PaymentNotificationInboxService;
+import com.example.platform.service.payment.PaymentReconciliationService;
+import com.example.platform.service.user.TokenRevocationService;
+import com.example.platform.service.user.UserRevocationService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
     private final FundStatusUpdater fundStatusUpdater;
+    private final PaymentNotificationInboxService notificationInboxService;
+    private final FundLedgerService fundLedgerService;
+    private final FundService fundService;
+    private final DonationService donationService;
+    private final PaymentReconciliationService reconciliationService;
+    private final FundBalanceDriftService balanceDriftService;
+    private final UserRevocationService userRevocationService;
+    private final TokenRevocationService tokenRevocationService;
 
-
-    public AdminController(FundStatusUpdater fundStatusUpdater) {
+    public AdminController(FundStatusUpdater fundStatusUpdater,
+                           PaymentNotificationInboxService notificationInboxService,
+                           FundLedgerService fundLedgerService,
+                           FundService fundService,
+                           DonationService donationService,
+                           PaymentReconciliationService reconciliationService,
+                           FundBalanceDriftService balanceDriftService,
+                           UserRevocationService userRevocationService,
+                           TokenRevocationService tokenRevocationService) {
         this.fundStatusUpdater = fundStatusUpdater;
+        this.notificationInboxService = notificationInboxService;
+        this.fundLedgerService = fundLedgerService;
+        this.fundService = fundService;
+        this.donationService = donationService;
+        this.reconciliationService = reconciliationService;
+        this.balanceDriftService = balanceDriftService;
+        this.userRevocationService = userRevocationService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/fund-status-update")
@@ -24,4 +73,102 @@ public class AdminController {
         fundStatusUpdater.updateFundStatuses();
         return ResponseEntity.ok("Status update triggered");
     }
+
+    @GetMapping("/payment-notifications/dead")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<NotificationInboxEntryResponse>> getDeadNotifications() {
+        return ResponseEntity.ok(notificationInboxService.getDeadLetters().stream()
+                .map(NotificationInboxEntryResponse::from)
+                .toList());
+    }
+
+    @PostMapping("/payment-notifications/{id}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> replayNotification(@PathVariable Long id) {
+        notificationInboxService.replay(id);
+        return ResponseEntity.ok("Notification requeued");
+    }
+
+    @PostMapping("/payment-notifications/replay-dead")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> replayDeadNotifications() {
+        int count = notificationInboxService.replayDeadLetters();
+        return ResponseEntity.ok(count + " notifications requeued");
+    }
+
+    @PostMapping("/donations/{donationId}/refunds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DonationResponse> refundDonation(@PathVariable Long donationId,
+                                                           @Valid @RequestBody RefundRequest request) {
+        return ResponseEntity.ok(donationService.requestRefund(donationId, request.amount(), request.requestId()));
+    }
+
+    @GetMapping("/funds/{fundId}/balance")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FundBalanceResponse> getFundBalance(@PathVariable Long fundId) {
+        return ResponseEntity.ok(new FundBalanceResponse(fundId,
+                fundService.getFundById(fundId).getCurrentAmount(),
+                fundLedgerService.getBalance(fundId)));
+    }
+
+    @PostMapping("/funds/{fundId}/ledger/adjustments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FundBalanceResponse> adjustFundBalance(@PathVariable Long fundId,
+                                                                 @Valid @RequestBody LedgerAdjustmentRequest request) {
+        fundLedgerService.recordAdjustment(fundId, request.amount(), request.comment());
+        return getFundBalance(fundId);
+    }
+
+    @PostMapping("/funds/{fundId}/ledger/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FundBalanceResponse> rebuildFundBalance(@PathVariable Long fundId) {
+        BigDecimal balance = fundLedgerService.rebuild(fundId);
+        return ResponseEntity.ok(new FundBalanceResponse(fundId, balance, balance));
+    }
+
+    // По умолчанию только отчет; исправления применяются при dryRun=false
+    @PostMapping("/funds/balance-drift")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BalanceDriftReport> repairBalanceDrift(@RequestParam(required = false) List<Long> fundIds,
+                                                                 @RequestParam(defaultValue = "true") boolean dryRun) {
+        return ResponseEntity.ok(balanceDriftService.repair(fundIds, dryRun));
+    }
+
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationReport> reconcilePayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalStateException("Reconciliation window is empty");
+        }
+        return ResponseEntity.ok(reconciliationService.reconcile(from, to));
+    }
+
+    @GetMapping("/reconciliation/{reportId}/discrepancies")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ReconciliationDiscrepancy>> getReconciliationDiscrepancies(@PathVariable Long reportId) {
+        return ResponseEntity.ok(reconciliationService.getDiscrepancies(reportId));
+    }
+
+    @PostMapping("/users/{userId}/disable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> disableUser(@PathVariable Long userId) {
+        userRevocationService.setEnabled(userId, false);
+        return ResponseEntity.ok("User disabled");
+    }
+
+    @PostMapping("/users/{userId}/enable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> enableUser(@PathVariable Long userId) {
+        userRevocationService.setEnabled(userId, true);
+        return ResponseEntity.ok("User enabled");
+    }
+
+    @PostMapping("/users/{userId}/revoke-sessions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> revokeUserSessions(@PathVariable Long userId) {
+        tokenRevocationService.revokeAllForUser(userId);
+        return ResponseEntity.ok("Sessions revoked");
+    }
 }
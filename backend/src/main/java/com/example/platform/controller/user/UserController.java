@@ -1,23 +1,48 @@
 package com.example.platform.controller.user;
 
+import com.example.platform.config.ClientIpResolver;
+import com.example.platform.dto.auth.AuthTokens;
 import com.example.platform.dto.auth.LoginRequest;
 import com.example.platform.dto.OrganizerProfileResponse;
 import com.example.platform.dto.auth.RegistrationRequest;
+import com.example.platform.dto.auth.SessionResponse;
+import com.example.platform.exception.ErrorResponse;
 import com.example.platform.model.User;
+import com.example.platform.service.user.RefreshTokenService;
 import com.example.platform.service.user.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 public class UserController {
 
+    private static final String REFRESH_COOKIE = "refresh_token";
 
     private final UserService userService;
 
+    private final RefreshTokenService refreshTokenService;
+
+    private final ClientIpResolver clientIpResolver;
+
+    @Value("${security.refresh.cookie-secure:true}")
+    private boolean secureCookie;
 
-    public UserController(UserService userService) {
+
+    public UserController(UserService userService, RefreshTokenService refreshTokenService, ClientIpResolver clientIpResolver) {
         this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
+        this.clientIpResolver = clientIpResolver;
     }
 
 
@@ -26,9 +51,47 @@ public class UserController {
         return ResponseEntity.ok(userService.register(request));
     }
 
+    // Тело ответа — access-токен, как и раньше; refresh-токен кладется в HttpOnly cookie
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody LoginRequest request) {
-        return ResponseEntity.ok(userService.verify(request));
+    public CompletableFuture<ResponseEntity<String>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        return userService.login(request, clientIpResolver.resolve(httpRequest), httpRequest.getHeader(HttpHeaders.USER_AGENT))
+                .thenApply(this::toResponse);
+    }
+
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+                                          HttpServletRequest httpRequest) {
+        try {
+            return toResponse(userService.refresh(refreshToken, clientIpResolver.resolve(httpRequest),
+                    httpRequest.getHeader(HttpHeaders.USER_AGENT)));
+        } catch (AuthenticationException e) {
+            // Негодный токен больше не пригодится — убираем cookie вместе с ответом 401
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.SET_COOKIE, refreshCookie("", Duration.ZERO).toString())
+                    .body(new ErrorResponse("UNAUTHORIZED", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionResponse>> getSessions(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        return ResponseEntity.ok(userService.getSessions(bearerToken(authorization)));
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> revokeSession(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                              @PathVariable String sessionId) {
+        userService.revokeSession(bearerToken(authorization), sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Токен уже проверен фильтром, иначе запрос не дошел бы сюда
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestParam(defaultValue = "false") boolean allSessions) {
+        userService.logout(bearerToken(authorization), allSessions);
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie("", Duration.ZERO).toString())
+                .build();
     }
 
     @GetMapping("/api/organizers/{organizerId}")
@@ -40,6 +103,30 @@ public class UserController {
         return ResponseEntity.ok(userService.getOrganizerProfile(username));
     }
 
+    private ResponseEntity<String> toResponse(AuthTokens tokens) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie(tokens.refreshToken(), refreshTokenService.getLifetime()).toString())
+                .body(tokens.accessToken());
+    }
+
+    // Cookie уходит только на /token/*, поэтому обычные запросы его не несут
+    private ResponseCookie refreshCookie(String value, Duration maxAge) {
+        return ResponseCookie.from(REFRESH_COOKIE, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Strict")
+                .path("/token")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    private static String bearerToken(String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            throw new IllegalStateException("Bearer token required");
+        }
+        return authorization.substring(7);
+    }
+
 }
 
 
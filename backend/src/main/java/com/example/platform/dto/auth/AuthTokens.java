@@ -0,0 +1,8 @@
+package com.example.platform.dto.auth;
+
+// Access-токен уходит в теле ответа, refresh-токен — в HttpOnly cookie
+public record AuthTokens(
+        String accessToken,
+        String refreshToken
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.platform.dto.auth;
+
+import java.time.LocalDateTime;
+
+public record SessionResponse(
+        String sessionId,
+        LocalDateTime startedAt,
+        LocalDateTime lastRefreshedAt,
+        LocalDateTime expiresAt,
+        String userAgent,
+        String ipAddress,
+        boolean current
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.platform.dto.auth;
+
+import java.time.LocalDateTime;
+
+// Токены пользователя, выпущенные раньше notBefore, считаются отозванными
+public record UserTokenCutoff(
+        Long userId,
+        LocalDateTime notBefore
+) {
+}
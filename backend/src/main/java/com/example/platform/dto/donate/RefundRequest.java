@@ -0,0 +1,19 @@
+package com.example.platform.dto.donate;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+// Без суммы возвращается пожертвование целиком. requestId генерирует клиент один раз на возврат
+// и повторяет при ретраях: из него строится Idempotence-Key, и ЮKassa не создаст второй возврат
+public record RefundRequest(
+        @Positive(message = "Refund amount must be positive")
+        BigDecimal amount,
+
+        @NotBlank(message = "Request id is required")
+        @Size(max = 36, message = "Request id is too long")
+        String requestId
+) {
+}
@@ -0,0 +1,26 @@
+package com.example.platform.dto.fund;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BalanceDriftReport(
+        boolean dryRun,
+        long fundsChecked,
+        int drifted,
+        int corrected,
+        BigDecimal totalDelta,
+        List<Drift> funds
+) {
+
+    public record Drift(
+            Long fundId,
+            BigDecimal storedAmount,
+            BigDecimal expectedAmount,
+            BigDecimal delta
+    ) {
+        public static Drift from(FundBalanceDrift drift) {
+            return new Drift(drift.getFundId(), drift.getStoredAmount(), drift.getExpectedAmount(),
+                    drift.getExpectedAmount().subtract(drift.getStoredAmount()));
+        }
+    }
+}
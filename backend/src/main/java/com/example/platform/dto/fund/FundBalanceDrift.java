@@ -0,0 +1,13 @@
+package com.example.platform.dto.fund;
+
+import java.math.BigDecimal;
+
+// Проекция фонда, у которого сохраненная сумма разошлась с пересчитанной
+public interface FundBalanceDrift {
+
+    Long getFundId();
+
+    BigDecimal getStoredAmount();
+
+    BigDecimal getExpectedAmount();
+}
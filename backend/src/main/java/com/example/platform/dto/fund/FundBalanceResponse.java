@@ -0,0 +1,10 @@
+package com.example.platform.dto.fund;
+
+import java.math.BigDecimal;
+
+public record FundBalanceResponse(
+        Long fundId,
+        BigDecimal currentAmount,
+        BigDecimal ledgerBalance
+) {
+}
@@ -30,6 +30,9 @@ public class FundRequest {
     private String imageType;
     private byte[] imageData;
 
+    // Завершенная загрузка из /api/uploads вместо imageFile
+    private String imageUploadId;
+
 
 
     public String getCategory() {
@@ -96,4 +99,12 @@ public class FundRequest {
     public void setImageType(String imageType) {
         this.imageType = imageType;
     }
+
+    public String getImageUploadId() {
+        return imageUploadId;
+    }
+
+    public void setImageUploadId(String imageUploadId) {
+        this.imageUploadId = imageUploadId;
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.platform.dto.fund;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record LedgerAdjustmentRequest(
+        @NotNull(message = "Amount is required")
+        BigDecimal amount,
+
+        @NotBlank(message = "Comment is required")
+        String comment
+) {
+}
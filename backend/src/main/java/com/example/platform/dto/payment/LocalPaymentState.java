@@ -0,0 +1,15 @@
+package com.example.platform.dto.payment;
+
+import java.math.BigDecimal;
+
+// Проекция пожертвования для сверки с ЮKassa
+public interface LocalPaymentState {
+
+    Long getDonationId();
+
+    String getPaymentId();
+
+    String getStatus();
+
+    BigDecimal getAmount();
+}
@@ -0,0 +1,27 @@
+package com.example.platform.dto.payment;
+
+import com.example.platform.model.Enum.InboxStatus;
+import com.example.platform.model.PaymentNotificationInbox;
+
+import java.time.LocalDateTime;
+
+public record NotificationInboxEntryResponse(
+        Long id,
+        String paymentId,
+        String event,
+        InboxStatus status,
+        int attempts,
+        String lastError,
+        LocalDateTime receivedAt
+) {
+    public static NotificationInboxEntryResponse from(PaymentNotificationInbox entry) {
+        return new NotificationInboxEntryResponse(
+                entry.getId(),
+                entry.getPaymentId(),
+                entry.getEvent(),
+                entry.getStatus(),
+                entry.getAttempts(),
+                entry.getLastError(),
+                entry.getReceivedAt());
+    }
+}
@@ -73,8 +73,17 @@ public class PaymentNotification {
     }
 
     // Геттеры для совместимости с существующим кодом
+    // Для событий refund.* объект — возврат, а платеж указан в payment_id
     public String getPaymentId() {
-        return object != null ? object.get("id").asText() : null;
+        if (object == null) {
+            return null;
+        }
+        return object.hasNonNull("payment_id") ? object.get("payment_id").asText() : object.path("id").asText(null);
+    }
+
+    // id самого объекта уведомления: платежа или возврата
+    public String getObjectId() {
+        return object != null ? object.path("id").asText(null) : null;
     }
 
     public String getStatus() {
@@ -91,6 +100,14 @@ public class PaymentNotification {
         return null;
     }
 
+    public String getMetadataValue(String key) {
+        if (object != null && object.has("metadata")) {
+            JsonNode value = object.get("metadata").get(key);
+            return value != null ? value.asText() : null;
+        }
+        return null;
+    }
+
     public String getCurrency() {
         if (object != null && object.has("amount")) {
             JsonNode amountNode = object.get("amount");
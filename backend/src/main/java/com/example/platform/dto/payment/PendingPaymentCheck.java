@@ -0,0 +1,11 @@
+package com.example.platform.dto.payment;
+
+import java.time.LocalDateTime;
+
+public record PendingPaymentCheck(
+        Long donationId,
+        String paymentId,
+        LocalDateTime createdAt,
+        int statusCheckAttempts
+) {
+}
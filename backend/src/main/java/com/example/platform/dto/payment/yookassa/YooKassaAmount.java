@@ -0,0 +1,16 @@
+package com.example.platform.dto.payment.yookassa;
+
+import java.math.BigDecimal;
+
+public record YooKassaAmount(
+        String value,
+        String currency
+) {
+    public static YooKassaAmount rub(BigDecimal value) {
+        return new YooKassaAmount(value.toPlainString(), "RUB");
+    }
+
+    public BigDecimal toBigDecimal() {
+        return new BigDecimal(value);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Пустой amount означает подтверждение всей суммы платежа
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record YooKassaCaptureRequest(
+        YooKassaAmount amount
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record YooKassaConfirmation(
+        String type,
+        @JsonProperty("return_url") String returnUrl,
+        @JsonProperty("confirmation_url") String confirmationUrl
+) {
+    public static YooKassaConfirmation redirect(String returnUrl) {
+        return new YooKassaConfirmation("redirect", returnUrl, null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record YooKassaPayment(
+        String id,
+        String status,
+        boolean paid,
+        YooKassaAmount amount,
+        @JsonProperty("refunded_amount") YooKassaAmount refundedAmount,
+        YooKassaConfirmation confirmation,
+        String description,
+        Map<String, String> metadata,
+        @JsonProperty("created_at") Instant createdAt,
+        @JsonProperty("captured_at") Instant capturedAt
+) {
+}
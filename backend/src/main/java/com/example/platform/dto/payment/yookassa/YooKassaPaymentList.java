@@ -0,0 +1,14 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record YooKassaPaymentList(
+        String type,
+        List<YooKassaPayment> items,
+        @JsonProperty("next_cursor") String nextCursor
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record YooKassaPaymentRequest(
+        YooKassaAmount amount,
+        YooKassaConfirmation confirmation,
+        Boolean capture,
+        String description,
+        Map<String, String> metadata
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record YooKassaRefund(
+        String id,
+        @JsonProperty("payment_id") String paymentId,
+        String status,
+        YooKassaAmount amount,
+        String description,
+        @JsonProperty("created_at") Instant createdAt
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.platform.dto.payment.yookassa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record YooKassaRefundRequest(
+        @JsonProperty("payment_id") String paymentId,
+        YooKassaAmount amount,
+        String description
+) {
+}
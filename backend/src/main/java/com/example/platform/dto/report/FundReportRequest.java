@@ -23,6 +23,9 @@ public class FundReportRequest {
     @NotEmpty(message = "At least one purchase must be specified")
     private List<String> purchases;
 
+    // Завершенные загрузки из /api/uploads, дополнительно к фото в multipart-части
+    private List<String> photoUploadIds;
+
     public String getDescription() {
         return description;
     }
@@ -54,4 +57,12 @@ public class FundReportRequest {
     public void setPurchases(List<String> purchases) {
         this.purchases = purchases;
     }
-} 
\ No newline at end of file
+
+    public List<String> getPhotoUploadIds() {
+        return photoUploadIds;
+    }
+
+    public void setPhotoUploadIds(List<String> photoUploadIds) {
+        this.photoUploadIds = photoUploadIds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.platform.dto.report;
+
+// Описание фото без содержимого: байты читаются отдельно потоком
+public record ReportPhotoMetadata(
+        Long id,
+        String fileName,
+        String fileType
+) {
+}
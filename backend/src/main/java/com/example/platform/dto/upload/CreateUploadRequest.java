@@ -0,0 +1,17 @@
+package com.example.platform.dto.upload;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+public record CreateUploadRequest(
+        String fileName,
+        @NotBlank(message = "File type is required")
+        String fileType,
+        @Positive(message = "File size must be positive")
+        long size,
+        @NotBlank(message = "SHA-256 is required")
+        @Pattern(regexp = "[0-9a-fA-F]{64}", message = "SHA-256 must be 64 hex characters")
+        String sha256
+) {
+}
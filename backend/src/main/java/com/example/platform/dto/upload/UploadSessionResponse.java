@@ -0,0 +1,17 @@
+package com.example.platform.dto.upload;
+
+import com.example.platform.model.Enum.UploadStatus;
+
+import java.time.LocalDateTime;
+
+// offset — с какого байта продолжать загрузку
+public record UploadSessionResponse(
+        String id,
+        String fileName,
+        String fileType,
+        long size,
+        long offset,
+        UploadStatus status,
+        LocalDateTime expiresAt
+) {
+}
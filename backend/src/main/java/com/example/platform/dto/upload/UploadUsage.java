@@ -0,0 +1,8 @@
+package com.example.platform.dto.upload;
+
+// Незавершенные и неиспользованные загрузки владельца: их файлы еще занимают место во временном каталоге
+public record UploadUsage(
+        Long sessions,
+        Long reservedBytes
+) {
+}
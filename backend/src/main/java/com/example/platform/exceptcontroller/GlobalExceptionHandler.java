@@ -1,8 +1,13 @@
 package com.example.platform.exceptcontroller;
 
 import com.example.platform.exception.ErrorResponse;
+import com.example.platform.exception.PaymentGatewayUnavailableException;
+import com.example.platform.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.access.AccessDeniedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -20,15 +25,23 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("NOT_FOUND", ex.getMessage());
     }
 
+    @ExceptionHandler(ResourceNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleResourceNotFound(ResourceNotFoundException ex) {
+        return new ErrorResponse("NOT_FOUND", ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleBadRequest(IllegalStateException ex) {
         return new ErrorResponse("BAD_REQUEST", ex.getMessage());
     }
 
-    @ExceptionHandler(AccessDeniedException.class)
+    // Вложенный AccessDeniedException скрывает одноименный из Spring Security, поэтому второй указан полным именем:
+    // иначе отказ @PreAuthorize уходил бы в обработчик Exception и превращался в 500
+    @ExceptionHandler({AccessDeniedException.class, org.springframework.security.access.AccessDeniedException.class})
     @ResponseStatus(HttpStatus.FORBIDDEN)
-    public ErrorResponse handleForbidden(AccessDeniedException ex) {
+    public ErrorResponse handleForbidden(RuntimeException ex) {
         return new ErrorResponse("FORBIDDEN", ex.getMessage());
     }
 
@@ -44,6 +57,19 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("VALIDATION_ERROR", message);
     }
 
+    @ExceptionHandler(PaymentGatewayUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handlePaymentGatewayUnavailable(PaymentGatewayUnavailableException ex) {
+        return new ErrorResponse("PAYMENTS_UNAVAILABLE", ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse("TOO_MANY_REQUESTS", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleInternalError(Exception ex) {
@@ -56,6 +82,12 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("CONFLICT", ex.getMessage());
     }
 
+    @ExceptionHandler({BadCredentialsException.class, DisabledException.class})
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ErrorResponse handleBadCredentials(org.springframework.security.core.AuthenticationException ex) {
+        return new ErrorResponse("UNAUTHORIZED", ex.getMessage());
+    }
+
     @ExceptionHandler(UsernameNotFoundException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ErrorResponse handleUnauthorized(UsernameNotFoundException ex) {
@@ -0,0 +1,7 @@
+package com.example.platform.exception;
+
+public class PaymentGatewayUnavailableException extends PaymentException {
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.platform.mapper;
 
 import com.example.platform.dto.report.FundReportRequest;
 import com.example.platform.dto.report.FundReportResponse;
+import com.example.platform.dto.report.ReportPhotoMetadata;
 import com.example.platform.dto.report.ReportPhotoResponse;
 import com.example.platform.model.FundReport;
 import com.example.platform.model.ReportPhoto;
@@ -30,6 +31,8 @@ public interface FundReportMapper {
     @Mapping(target = "fileType", source = "fileType")
     ReportPhotoResponse toPhotoResponse(ReportPhoto photo);
 
+    ReportPhotoResponse toPhotoResponse(ReportPhotoMetadata photo);
+
     List<ReportPhotoResponse> toPhotoResponseList(List<ReportPhoto> photos);
 
     default void updateFromDto(FundReportRequest dto, @MappingTarget FundReport entity) {
@@ -2,6 +2,7 @@ package com.example.platform.model;
 
 import com.example.platform.model.Enum.DonationStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,7 +11,8 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "donations")
+@Table(name = "donations",
+        indexes = @Index(name = "idx_donations_status_next_check", columnList = "status, next_check_at"))
 public class Donation {
 
     @Id
@@ -34,11 +36,22 @@ public class Donation {
     @Enumerated(EnumType.STRING)
     private DonationStatus status;
 
-    @Column(nullable = false)
+    // Заполняется диспетчером outbox после ответа ЮKassa
+    @Column(unique = true)
     private String paymentId;
 
     private String description;
 
+    private String confirmationUrl;
+
+    // Когда опросчику статусов снова проверить платеж в ЮKassa
+    @Column(name = "next_check_at")
+    private LocalDateTime nextCheckAt;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int statusCheckAttempts;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -109,6 +122,30 @@ public class Donation {
         this.paymentId = paymentId;
     }
 
+    public String getConfirmationUrl() {
+        return confirmationUrl;
+    }
+
+    public void setConfirmationUrl(String confirmationUrl) {
+        this.confirmationUrl = confirmationUrl;
+    }
+
+    public LocalDateTime getNextCheckAt() {
+        return nextCheckAt;
+    }
+
+    public void setNextCheckAt(LocalDateTime nextCheckAt) {
+        this.nextCheckAt = nextCheckAt;
+    }
+
+    public int getStatusCheckAttempts() {
+        return statusCheckAttempts;
+    }
+
+    public void setStatusCheckAttempts(int statusCheckAttempts) {
+        this.statusCheckAttempts = statusCheckAttempts;
+    }
+
     public DonationStatus getStatus() {
         return status;
     }
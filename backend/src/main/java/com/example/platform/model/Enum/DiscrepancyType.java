@@ -0,0 +1,8 @@
+package com.example.platform.model.Enum;
+
+public enum DiscrepancyType {
+    STATUS_MISMATCH,
+    AMOUNT_MISMATCH,
+    MISSING_LOCALLY,
+    MISSING_AT_GATEWAY
+}
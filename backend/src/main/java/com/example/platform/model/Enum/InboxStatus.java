@@ -0,0 +1,8 @@
+package com.example.platform.model.Enum;
+
+public enum InboxStatus {
+    PENDING,
+    PROCESSING,
+    PROCESSED,
+    DEAD
+}
@@ -0,0 +1,8 @@
+package com.example.platform.model.Enum;
+
+public enum LedgerEntryType {
+    DONATION,
+    REFUND,
+    PARTIAL_REFUND,
+    ADJUSTMENT
+}
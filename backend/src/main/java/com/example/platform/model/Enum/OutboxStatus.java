@@ -0,0 +1,8 @@
+package com.example.platform.model.Enum;
+
+public enum OutboxStatus {
+    PENDING,
+    IN_PROGRESS,
+    SENT,
+    FAILED
+}
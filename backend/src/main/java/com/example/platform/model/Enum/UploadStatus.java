@@ -0,0 +1,7 @@
+package com.example.platform.model.Enum;
+
+public enum UploadStatus {
+    OPEN,
+    COMPLETED,
+    CONSUMED
+}
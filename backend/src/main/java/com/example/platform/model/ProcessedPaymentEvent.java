@@ -0,0 +1,61 @@
+package com.example.platform.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ключ уже обработанного уведомления ЮKassa (событие + платеж).
+ * Уникальное ограничение не дает применить одно и то же событие дважды.
+ */
+@Entity
+@Table(name = "processed_payment_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_processed_payment_event", columnNames = {"event", "payment_id"}))
+public class ProcessedPaymentEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String event;
+
+    @Column(name = "payment_id", nullable = false)
+    private String paymentId;
+
+    @CreationTimestamp
+    private LocalDateTime processedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(String paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
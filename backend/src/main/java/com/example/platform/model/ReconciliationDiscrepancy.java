@@ -0,0 +1,120 @@
+package com.example.platform.model;
+
+import com.example.platform.model.Enum.DiscrepancyType;
+import com.example.platform.model.Enum.DonationStatus;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "reconciliation_discrepancies",
+        indexes = @Index(name = "idx_reconciliation_discrepancies_report", columnList = "report_id"))
+public class ReconciliationDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_id", nullable = false)
+    private Long reportId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DiscrepancyType type;
+
+    private String paymentId;
+
+    private Long donationId;
+
+    @Enumerated(EnumType.STRING)
+    private DonationStatus localStatus;
+
+    private String gatewayStatus;
+
+    private BigDecimal localAmount;
+
+    private BigDecimal gatewayAmount;
+
+    // true — расхождение исправлено автоматически, false — требует разбора
+    private boolean fixed;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReportId() {
+        return reportId;
+    }
+
+    public void setReportId(Long reportId) {
+        this.reportId = reportId;
+    }
+
+    public DiscrepancyType getType() {
+        return type;
+    }
+
+    public void setType(DiscrepancyType type) {
+        this.type = type;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(String paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public Long getDonationId() {
+        return donationId;
+    }
+
+    public void setDonationId(Long donationId) {
+        this.donationId = donationId;
+    }
+
+    public DonationStatus getLocalStatus() {
+        return localStatus;
+    }
+
+    public void setLocalStatus(DonationStatus localStatus) {
+        this.localStatus = localStatus;
+    }
+
+    public String getGatewayStatus() {
+        return gatewayStatus;
+    }
+
+    public void setGatewayStatus(String gatewayStatus) {
+        this.gatewayStatus = gatewayStatus;
+    }
+
+    public BigDecimal getLocalAmount() {
+        return localAmount;
+    }
+
+    public void setLocalAmount(BigDecimal localAmount) {
+        this.localAmount = localAmount;
+    }
+
+    public BigDecimal getGatewayAmount() {
+        return gatewayAmount;
+    }
+
+    public void setGatewayAmount(BigDecimal gatewayAmount) {
+        this.gatewayAmount = gatewayAmount;
+    }
+
+    public boolean isFixed() {
+        return fixed;
+    }
+
+    public void setFixed(boolean fixed) {
+        this.fixed = fixed;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.platform.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_reports")
+public class ReconciliationReport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Окно по времени создания платежа
+    @Column(nullable = false)
+    private LocalDateTime windowFrom;
+
+    @Column(nullable = false)
+    private LocalDateTime windowTo;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private int gatewayPayments;
+
+    private int localDonations;
+
+    private int matched;
+
+    private int fixed;
+
+    private int flagged;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getWindowFrom() {
+        return windowFrom;
+    }
+
+    public void setWindowFrom(LocalDateTime windowFrom) {
+        this.windowFrom = windowFrom;
+    }
+
+    public LocalDateTime getWindowTo() {
+        return windowTo;
+    }
+
+    public void setWindowTo(LocalDateTime windowTo) {
+        this.windowTo = windowTo;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getGatewayPayments() {
+        return gatewayPayments;
+    }
+
+    public void setGatewayPayments(int gatewayPayments) {
+        this.gatewayPayments = gatewayPayments;
+    }
+
+    public int getLocalDonations() {
+        return localDonations;
+    }
+
+    public void setLocalDonations(int localDonations) {
+        this.localDonations = localDonations;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public void setMatched(int matched) {
+        this.matched = matched;
+    }
+
+    public int getFixed() {
+        return fixed;
+    }
+
+    public void setFixed(int fixed) {
+        this.fixed = fixed;
+    }
+
+    public int getFlagged() {
+        return flagged;
+    }
+
+    public void setFlagged(int flagged) {
+        this.flagged = flagged;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -5,12 +5,13 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_username", columnList = "username"))
 public class User {
 
     @Id
@@ -26,6 +27,14 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Отключенный пользователь не может войти, а его выданные токены отклоняются
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private boolean enabled = true;
+
+    // "Выйти на всех устройствах": токены, выпущенные раньше, отклоняются
+    @Column(name = "tokens_not_before")
+    private LocalDateTime tokensNotBefore;
+
     @OneToMany(mappedBy = "volunteer", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<VolunteerRequest> volunteerRequests = new ArrayList<>();
 
@@ -85,6 +94,22 @@ public class User {
         this.role = role;
     }
 
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LocalDateTime getTokensNotBefore() {
+        return tokensNotBefore;
+    }
+
+    public void setTokensNotBefore(LocalDateTime tokensNotBefore) {
+        this.tokensNotBefore = tokensNotBefore;
+    }
+
     public List<VolunteerRequest> getVolunteerRequests() {
         return volunteerRequests;
     }
@@ -1,14 +1,20 @@
 package com.example.platform.repository;
 
+import com.example.platform.dto.payment.LocalPaymentState;
+import com.example.platform.dto.payment.PendingPaymentCheck;
 import com.example.platform.model.Donation;
 import com.example.platform.model.Enum.DonationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +24,60 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
     Optional<Donation> findByPaymentId(String paymentId);
     List<Donation> findByFundId(Long fundId);
     List<Donation> findByDonorId(Long donorId);
-    List<Donation> findByStatusAndCreatedAtBefore(DonationStatus status, LocalDateTime createdAt);
+    // Только платежи, у которых подошло время проверки; keyset-пагинация по id внутри прогона
+    @Query("SELECT new com.example.platform.dto.payment.PendingPaymentCheck(d.id, d.paymentId, d.createdAt, d.statusCheckAttempts) " +
+            "FROM Donation d WHERE d.status = :status AND d.nextCheckAt <= :now AND d.id > :afterId ORDER BY d.id")
+    List<PendingPaymentCheck> findDuePaymentChecks(@Param("status") DonationStatus status,
+                                                   @Param("now") LocalDateTime now,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    // Для сверки с ЮKassa: пожертвования окна в побайтовом порядке paymentId (COLLATE "C" совпадает
+    // с String.compareTo), keyset по paymentId
+    @Query(value = """
+            SELECT d.id AS "donationId", d.payment_id AS "paymentId", d.status AS "status", d.amount AS "amount"
+            FROM donations d
+            WHERE d.created_at >= :from AND d.created_at < :to
+              AND d.payment_id IS NOT NULL AND d.payment_id COLLATE "C" > :afterPaymentId
+            ORDER BY d.payment_id COLLATE "C"
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<LocalPaymentState> findPaymentStates(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("afterPaymentId") String afterPaymentId,
+                                              @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT d.id AS "donationId", d.payment_id AS "paymentId", d.status AS "status", d.amount AS "amount"
+            FROM donations d
+            WHERE d.payment_id IN (:paymentIds)
+            """, nativeQuery = true)
+    List<LocalPaymentState> findPaymentStatesByPaymentIds(@Param("paymentIds") Collection<String> paymentIds);
+
+    long countByStatusAndNextCheckAtBefore(DonationStatus status, LocalDateTime before);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Donation d SET d.statusCheckAttempts = d.statusCheckAttempts + 1, d.nextCheckAt = :nextCheckAt " +
+            "WHERE d.id IN :ids AND d.status = :status")
+    int rescheduleStatusCheck(@Param("ids") Collection<Long> ids,
+                              @Param("status") DonationStatus status,
+                              @Param("nextCheckAt") LocalDateTime nextCheckAt);
+
+    // Пожертвования, созданные до появления next_check_at
+    @Transactional
+    @Modifying
+    @Query("UPDATE Donation d SET d.nextCheckAt = d.createdAt " +
+            "WHERE d.status = :status AND d.paymentId IS NOT NULL AND d.nextCheckAt IS NULL")
+    int scheduleUncheckedPayments(@Param("status") DonationStatus status);
+
+    // Только из PENDING, чтобы не затереть статус, выставленный вебхуком параллельно
+    @Transactional
+    @Modifying
+    @Query("UPDATE Donation d SET d.status = :newStatus, d.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE d.id IN :ids AND d.status = :expectedStatus")
+    int updateStatusIfCurrent(@Param("ids") Collection<Long> ids,
+                              @Param("expectedStatus") DonationStatus expectedStatus,
+                              @Param("newStatus") DonationStatus newStatus);
 
 }
@@ -0,0 +1,13 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.FundBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FundBalanceSnapshotRepository extends JpaRepository<FundBalanceSnapshot, Long> {
+
+    Optional<FundBalanceSnapshot> findTopByFundIdOrderByLastEntryIdDesc(Long fundId);
+}
@@ -0,0 +1,46 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.Enum.LedgerEntryType;
+import com.example.platform.model.FundLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FundLedgerRepository extends JpaRepository<FundLedgerEntry, Long> {
+
+    boolean existsByExternalId(String externalId);
+
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM FundLedgerEntry e WHERE e.fund.id = :fundId AND e.id > :afterId")
+    BigDecimal sumAfter(@Param("fundId") Long fundId, @Param("afterId") Long afterId);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM FundLedgerEntry e WHERE e.fund.id = :fundId")
+    Long findLastEntryId(@Param("fundId") Long fundId);
+
+    // Сколько уже возвращено по пожертвованию (положительное число)
+    @Query("SELECT COALESCE(-SUM(e.amount), 0) FROM FundLedgerEntry e WHERE e.donation.id = :donationId AND e.type IN :types")
+    BigDecimal sumReversed(@Param("donationId") Long donationId, @Param("types") Collection<LedgerEntryType> types);
+
+    // Фонды, у которых после последнего снимка появились записи
+    @Query("SELECT DISTINCT e.fund.id FROM FundLedgerEntry e WHERE e.id > " +
+            "COALESCE((SELECT MAX(s.lastEntryId) FROM FundBalanceSnapshot s WHERE s.fund.id = e.fund.id), 0)")
+    List<Long> findFundIdsWithEntriesAfterSnapshot();
+
+    // Начальный остаток для фондов, накопленных до появления журнала
+    @Modifying
+    @Query(value = """
+            INSERT INTO fund_ledger (fund_id, type, amount, external_id, comment, created_at)
+            SELECT f.id, 'ADJUSTMENT', f.current_amount, 'opening:' || f.id, 'Opening balance', now()
+            FROM fund f
+            WHERE f.current_amount <> 0
+              AND NOT EXISTS (SELECT 1 FROM fund_ledger e WHERE e.fund_id = f.id)
+            ON CONFLICT (external_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertOpeningBalances();
+}
@@ -11,4 +11,5 @@ import java.util.Optional;
 public interface FundReportRepository extends JpaRepository<FundReport, Long> {
     List<FundReport> findByFundId(Long fundId);
     Optional<FundReport> findByFundIdAndId(Long fundId, Long reportId);
+    boolean existsByFundIdAndId(Long fundId, Long reportId);
 } 
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.example.platform.repository;
 
+import com.example.platform.dto.fund.FundBalanceDrift;
+import com.example.platform.model.Enum.FundStatus;
 import com.example.platform.model.Fund;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +23,87 @@ public interface FundRepository extends JpaRepository<Fund, Long> {
 
     @Query("SELECT f FROM Fund f WHERE f.owner.id = :ownerId")
     List<Fund> findByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Атомарное изменение суммы: строка фонда блокируется до конца транзакции
+    @Modifying
+    @Query("UPDATE Fund f SET f.currentAmount = f.currentAmount + :delta WHERE f.id = :fundId")
+    int addToCurrentAmount(@Param("fundId") Long fundId, @Param("delta") BigDecimal delta);
+
+    @Modifying
+    @Query("UPDATE Fund f SET f.currentAmount = :amount WHERE f.id = :fundId")
+    int setCurrentAmount(@Param("fundId") Long fundId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE Fund f SET f.status = :completed " +
+            "WHERE f.id = :fundId AND f.status = :active AND f.currentAmount >= f.targetAmount")
+    int completeIfTargetReached(@Param("fundId") Long fundId,
+                                @Param("active") FundStatus active,
+                                @Param("completed") FundStatus completed);
+
+    @Query(value = "SELECT id FROM fund WHERE id = :fundId FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("fundId") Long fundId);
+
+    // Ожидаемая сумма: завершенные пожертвования, частичные возвраты по ним и ручные корректировки журнала.
+    // Начальные остатки и прошлые исправления расхождений не учитываются — сумма считается с нуля.
+    // Один проход с группировкой по donations и fund_ledger, строки fund не блокируются
+    @Query(value = """
+            SELECT t.fund_id AS "fundId", t.stored AS "storedAmount", t.expected AS "expectedAmount"
+            FROM (SELECT f.id AS fund_id, f.current_amount AS stored,
+                         COALESCE(d.total, 0) + COALESCE(a.total, 0) AS expected
+                  FROM fund f
+                  LEFT JOIN (SELECT fund_id, SUM(amount) AS total FROM donations
+                             WHERE status = 'COMPLETED'
+                             GROUP BY fund_id) d ON d.fund_id = f.id
+                  LEFT JOIN (SELECT e.fund_id, SUM(e.amount) AS total FROM fund_ledger e
+                             LEFT JOIN donations dn ON dn.id = e.donation_id
+                             WHERE (e.type = 'ADJUSTMENT' AND e.external_id IS NULL)
+                                OR (e.type = 'PARTIAL_REFUND' AND dn.status = 'COMPLETED')
+                             GROUP BY e.fund_id) a ON a.fund_id = f.id) t
+            WHERE t.stored <> t.expected
+            ORDER BY t.fund_id
+            """, nativeQuery = true)
+    List<FundBalanceDrift> findBalanceDrift();
+
+    @Query(value = """
+            SELECT t.fund_id AS "fundId", t.stored AS "storedAmount", t.expected AS "expectedAmount"
+            FROM (SELECT f.id AS fund_id, f.current_amount AS stored,
+                         COALESCE(d.total, 0) + COALESCE(a.total, 0) AS expected
+                  FROM fund f
+                  LEFT JOIN (SELECT fund_id, SUM(amount) AS total FROM donations
+                             WHERE status = 'COMPLETED' AND fund_id IN (:fundIds)
+                             GROUP BY fund_id) d ON d.fund_id = f.id
+                  LEFT JOIN (SELECT e.fund_id, SUM(e.amount) AS total FROM fund_ledger e
+                             LEFT JOIN donations dn ON dn.id = e.donation_id
+                             WHERE e.fund_id IN (:fundIds)
+                               AND ((e.type = 'ADJUSTMENT' AND e.external_id IS NULL)
+                                 OR (e.type = 'PARTIAL_REFUND' AND dn.status = 'COMPLETED'))
+                             GROUP BY e.fund_id) a ON a.fund_id = f.id
+                  WHERE f.id IN (:fundIds)) t
+            WHERE t.stored <> t.expected
+            ORDER BY t.fund_id
+            """, nativeQuery = true)
+    List<FundBalanceDrift> findBalanceDrift(@Param("fundIds") Collection<Long> fundIds);
+
+    // Исправляет порцию фондов одним UPDATE и пишет разницу в журнал. Фонд пропускается, если его сумма
+    // изменилась после расчета: пожертвование, прошедшее между чтением и записью, не будет потеряно
+    @Transactional
+    @Modifying
+    @Query(value = """
+            WITH v AS (
+                SELECT * FROM unnest(CAST(:fundIds AS bigint[]), CAST(:storedAmounts AS numeric[]),
+                                     CAST(:expectedAmounts AS numeric[])) AS v(fund_id, stored, expected)
+            ), updated AS (
+                UPDATE fund f SET current_amount = v.expected
+                FROM v
+                WHERE f.id = v.fund_id AND f.current_amount = v.stored
+                RETURNING f.id AS fund_id, v.expected - v.stored AS delta
+            )
+            INSERT INTO fund_ledger (fund_id, type, amount, external_id, comment, created_at)
+            SELECT fund_id, 'ADJUSTMENT', delta, :runId || ':' || fund_id, 'Balance drift correction', now()
+            FROM updated
+            """, nativeQuery = true)
+    int correctBalances(@Param("fundIds") Long[] fundIds,
+                        @Param("storedAmounts") BigDecimal[] storedAmounts,
+                        @Param("expectedAmounts") BigDecimal[] expectedAmounts,
+                        @Param("runId") String runId);
 }
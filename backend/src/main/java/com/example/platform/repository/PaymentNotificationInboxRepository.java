@@ -0,0 +1,36 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.Enum.InboxStatus;
+import com.example.platform.model.PaymentNotificationInbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentNotificationInboxRepository extends JpaRepository<PaymentNotificationInbox, Long> {
+
+    // Уведомление берется, только если по тому же платежу нет более раннего необработанного:
+    // так события одного платежа применяются строго по порядку поступления
+    @Query(value = """
+            SELECT * FROM payment_notification_inbox i
+            WHERE ((i.status = 'PENDING' AND i.next_attempt_at <= :now)
+                   OR (i.status = 'PROCESSING' AND i.claimed_at < :leaseExpiredBefore))
+              AND NOT EXISTS (
+                  SELECT 1 FROM payment_notification_inbox e
+                  WHERE e.payment_id = i.payment_id
+                    AND e.id < i.id
+                    AND e.status IN ('PENDING', 'PROCESSING'))
+            ORDER BY i.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<PaymentNotificationInbox> lockDueEntries(@Param("now") LocalDateTime now,
+                                                  @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore,
+                                                  @Param("limit") int limit);
+
+    List<PaymentNotificationInbox> findByStatusOrderByIdAsc(InboxStatus status);
+}
@@ -0,0 +1,27 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.PaymentOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, Long> {
+
+    // Зависшие IN_PROGRESS (упавший диспетчер) забираются повторно после истечения аренды
+    @Query(value = """
+            SELECT * FROM payment_outbox
+            WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+               OR (status = 'IN_PROGRESS' AND claimed_at < :leaseExpiredBefore)
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<PaymentOutbox> lockDueEntries(@Param("now") LocalDateTime now,
+                                       @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore,
+                                       @Param("limit") int limit);
+}
@@ -0,0 +1,21 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.ProcessedPaymentEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessedPaymentEventRepository extends JpaRepository<ProcessedPaymentEvent, Long> {
+
+    // 0 — ключ уже есть; конкурентная вставка ждет на уникальном индексе до коммита первой
+    @Modifying
+    @Query(value = """
+            INSERT INTO processed_payment_events (event, payment_id, processed_at)
+            VALUES (:event, :paymentId, now())
+            ON CONFLICT ON CONSTRAINT uk_processed_payment_event DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("event") String event, @Param("paymentId") String paymentId);
+}
@@ -0,0 +1,13 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.ReconciliationDiscrepancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    List<ReconciliationDiscrepancy> findByReportIdOrderByIdAsc(Long reportId);
+}
@@ -0,0 +1,9 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.ReconciliationReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconciliationReportRepository extends JpaRepository<ReconciliationReport, Long> {
+}
@@ -0,0 +1,45 @@
+package com.example.platform.repository;
+
+import com.example.platform.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Действующие токены пользователя: по одному на сессию
+    List<RefreshToken> findByUserIdAndUsedAtIsNullAndExpiresAtAfterOrderBySessionStartedAtDesc(Long userId, LocalDateTime now);
+
+    // Условное обновление: из двух одновременных обменов одного токена выигрывает только один
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.sessionId = :sessionId AND t.usedAt IS NULL")
+    int revokeSession(@Param("sessionId") String sessionId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now " +
+            "WHERE t.userId = :userId AND t.sessionId = :sessionId AND t.usedAt IS NULL")
+    int revokeSession(@Param("userId") Long userId, @Param("sessionId") String sessionId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.userId = :userId AND t.usedAt IS NULL")
+    int revokeAllForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
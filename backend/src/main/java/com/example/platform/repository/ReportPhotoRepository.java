@@ -0,0 +1,25 @@
+package com.example.platform.repository;
+
+import com.example.platform.dto.report.ReportPhotoMetadata;
+import com.example.platform.model.ReportPhoto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportPhotoRepository extends JpaRepository<ReportPhoto, Long> {
+
+    @Query("SELECT new com.example.platform.dto.report.ReportPhotoMetadata(p.id, p.fileName, p.fileType) " +
+            "FROM ReportPhoto p WHERE p.id = :photoId AND p.report.id = :reportId AND p.report.fund.id = :fundId")
+    Optional<ReportPhotoMetadata> findMetadata(@Param("fundId") Long fundId,
+                                               @Param("reportId") Long reportId,
+                                               @Param("photoId") Long photoId);
+
+    @Query("SELECT new com.example.platform.dto.report.ReportPhotoMetadata(p.id, p.fileName, p.fileType) " +
+            "FROM ReportPhoto p WHERE p.report.id = :reportId AND p.report.fund.id = :fundId ORDER BY p.id")
+    List<ReportPhotoMetadata> findMetadataByReport(@Param("fundId") Long fundId, @Param("reportId") Long reportId);
+}
@@ -0,0 +1,42 @@
+package com.example.platform.repository;
+
+import com.example.platform.dto.upload.UploadUsage;
+import com.example.platform.model.Enum.UploadStatus;
+import com.example.platform.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Смещение двигается только с ожидаемого значения: параллельный или повторный фрагмент не затрет данные
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadSession u SET u.receivedBytes = :received " +
+            "WHERE u.id = :id AND u.receivedBytes = :expected AND u.status = com.example.platform.model.Enum.UploadStatus.OPEN")
+    int advance(@Param("id") String id, @Param("expected") long expected, @Param("received") long received);
+
+    @Modifying
+    @Query("UPDATE UploadSession u SET u.status = :to WHERE u.id = :id AND u.status = :from")
+    int updateStatusIfCurrent(@Param("id") String id, @Param("from") UploadStatus from, @Param("to") UploadStatus to);
+
+    @Query("SELECT new com.example.platform.dto.upload.UploadUsage(COUNT(u), COALESCE(SUM(u.size), 0L)) " +
+            "FROM UploadSession u WHERE u.ownerId = :ownerId AND u.expiresAt > :now " +
+            "AND u.status <> com.example.platform.model.Enum.UploadStatus.CONSUMED")
+    UploadUsage findUsage(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT u.id FROM UploadSession u WHERE u.expiresAt <= :now OR u.status = com.example.platform.model.Enum.UploadStatus.CONSUMED")
+    List<String> findExpiredOrConsumedIds(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UploadSession u WHERE u.id IN :ids")
+    int deleteByIds(@Param("ids") List<String> ids);
+}
@@ -1,9 +1,16 @@
 package com.example.platform.repository;
 
+import com.example.platform.dto.auth.UserTokenCutoff;
 import com.example.platform.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +18,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     User findByUsername(String username);
 
+    @Query("SELECT u.id FROM User u WHERE u.enabled = false")
+    List<Long> findDisabledUserIds();
+
+    @Modifying
+    @Query("UPDATE User u SET u.enabled = :enabled WHERE u.id = :userId")
+    int setEnabled(@Param("userId") Long userId, @Param("enabled") boolean enabled);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokensNotBefore = :notBefore WHERE u.id = :userId")
+    int setTokensNotBefore(@Param("userId") Long userId, @Param("notBefore") LocalDateTime notBefore);
+
+    // Отсечки старше срока жизни токена ничего не отзывают: такие токены уже истекли
+    @Query("SELECT new com.example.platform.dto.auth.UserTokenCutoff(u.id, u.tokensNotBefore) " +
+            "FROM User u WHERE u.tokensNotBefore > :since")
+    List<UserTokenCutoff> findTokenCutoffsAfter(@Param("since") LocalDateTime since);
+
 }
@@ -0,0 +1,39 @@
+package com.example.platform.service.donate;
+
+import com.example.platform.dto.donate.DonationResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ожидающие long-poll запросы на ссылку оплаты в пределах одного узла.
+ * Запросы на других узлах получат актуальное состояние из БД по таймауту.
+ */
+@Component
+public class DonationConfirmationNotifier {
+
+    private final Map<Long, List<DeferredResult<DonationResponse>>> waiters = new ConcurrentHashMap<>();
+
+    void register(Long donationId, DeferredResult<DonationResponse> result) {
+        waiters.computeIfAbsent(donationId, id -> new CopyOnWriteArrayList<>()).add(result);
+        result.onCompletion(() -> unregister(donationId, result));
+    }
+
+    private void unregister(Long donationId, DeferredResult<DonationResponse> result) {
+        waiters.computeIfPresent(donationId, (id, list) -> {
+            list.remove(result);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    void publish(Long donationId, DonationResponse response) {
+        List<DeferredResult<DonationResponse>> pending = waiters.remove(donationId);
+        if (pending != null) {
+            pending.forEach(result -> result.setResult(response));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.platform.service.donate;
+
+import com.example.platform.dto.donate.DonationRequest;
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.model.Donation;
+import com.example.platform.model.Enum.DonationStatus;
+import com.example.platform.model.Fund;
+import com.example.platform.model.PaymentOutbox;
+import com.example.platform.model.User;
+import com.example.platform.repository.DonationRepository;
+import com.example.platform.repository.FundRepository;
+import com.example.platform.repository.PaymentOutboxRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Записывает пожертвование и задание на создание платежа в outbox одной транзакцией.
+ * Сам платеж в ЮKassa создает {@link com.example.platform.service.payment.PaymentOutboxDispatcher}.
+ */
+@Service
+public class DonationReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DonationReservationService.class);
+
+    private final DonationRepository donationRepository;
+    private final FundRepository fundRepository;
+    private final PaymentOutboxRepository paymentOutboxRepository;
+
+    public DonationReservationService(DonationRepository donationRepository, FundRepository fundRepository, PaymentOutboxRepository paymentOutboxRepository) {
+        this.donationRepository = donationRepository;
+        this.fundRepository = fundRepository;
+        this.paymentOutboxRepository = paymentOutboxRepository;
+    }
+
+    @Transactional
+    public Donation reserve(DonationRequest request, User donor) {
+        Fund fund = fundRepository.findById(request.getFundId())
+                .orElseThrow(() -> new GlobalExceptionHandler.ResourceNotFoundException("Fund not found with id: " + request.getFundId()));
+
+        Donation donation = new Donation();
+        donation.setFund(fund);
+        donation.setDonor(donor);
+        donation.setAmount(request.getAmount());
+        donation.setStatus(DonationStatus.PENDING);
+        donation.setDescription(request.getDescription());
+        donation.setCurrency("RUB");
+        Donation saved = donationRepository.save(donation);
+
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setDonation(saved);
+        outbox.setReturnUrl(request.getReturnUrl());
+        outbox.setIdempotenceKey(UUID.randomUUID().toString());
+        outbox.setNextAttemptAt(LocalDateTime.now());
+        paymentOutboxRepository.save(outbox);
+
+        logger.debug("Reserved pending donation: id={}, fundId={}", saved.getId(), fund.getId());
+        return saved;
+    }
+}
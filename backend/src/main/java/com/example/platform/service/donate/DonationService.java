@@ -3,25 +3,30 @@ package com.example.platform.service.donate;
 import com.example.platform.dto.donate.DonationRequest;
 import com.example.platform.dto.donate.DonationResponse;
 import com.example.platform.dto.payment.PaymentNotification;
-import com.example.platform.dto.payment.PaymentRequest;
 import com.example.platform.dto.payment.PaymentResponse;
+import com.example.platform.dto.payment.yookassa.YooKassaRefund;
 import com.example.platform.exceptcontroller.GlobalExceptionHandler;
 import com.example.platform.exception.PaymentException;
 import com.example.platform.model.Donation;
 import com.example.platform.model.Enum.DonationStatus;
-import com.example.platform.model.Fund;
 import com.example.platform.model.User;
 import com.example.platform.repository.DonationRepository;
 import com.example.platform.service.fund.FundService;
-import com.example.platform.service.fund.FundUpdateService;
+import com.example.platform.service.fund.FundLedgerService;
 import com.example.platform.service.payment.PaymentService;
+import com.example.platform.service.payment.PaymentStatusCheckService;
+import com.example.platform.service.payment.ProcessedPaymentEventService;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,72 +37,70 @@ public class DonationService {
     private final PaymentService paymentService;
     private final FundService fundService;
     private final DonationRepository donationRepository;
-    private final FundUpdateService fundUpdateService;
+    private final FundLedgerService fundLedgerService;
+    private final DonationReservationService donationReservationService;
+    private final DonationConfirmationNotifier confirmationNotifier;
+    private final ProcessedPaymentEventService processedEventService;
 
-    public DonationService(PaymentService paymentService, FundService fundService, DonationRepository donationRepository, FundUpdateService fundUpdateService) {
+    public DonationService(PaymentService paymentService, FundService fundService, DonationRepository donationRepository, FundLedgerService fundLedgerService, DonationReservationService donationReservationService, DonationConfirmationNotifier confirmationNotifier, ProcessedPaymentEventService processedEventService) {
         this.paymentService = paymentService;
         this.fundService = fundService;
         this.donationRepository = donationRepository;
-        this.fundUpdateService = fundUpdateService;
+        this.fundLedgerService = fundLedgerService;
+        this.donationReservationService = donationReservationService;
+        this.confirmationNotifier = confirmationNotifier;
+        this.processedEventService = processedEventService;
     }
 
-    @Transactional
+    /**
+     * Сохраняет пожертвование и задание в outbox и сразу возвращает PENDING-ответ без ссылки оплаты.
+     * Ссылку клиент получает через {@link #awaitConfirmation}.
+     */
     public DonationResponse createDonation(DonationRequest request, User donor) {
-        System.out.println("Starting donation creation for fundId: " + request.getFundId());
-        System.out.println("Donor info - ID: " + (donor != null ? donor.getId() : "null") + 
-                         ", Name: " + (donor != null ? donor.getDisplayName() : "null"));
-        
         if (donor == null) {
             throw new RuntimeException("Donor cannot be null");
         }
-        
-        Fund fund = fundService.getFundById(request.getFundId());
-        System.out.println("Found fund: " + (fund != null ? fund.getTitle() : "null"));
-        
-        if (fund == null) {
-            System.out.println("Fund not found with id: " + request.getFundId());
-            throw new GlobalExceptionHandler.ResourceNotFoundException("Fund not found with id: " + request.getFundId());
+        logger.debug("Starting donation creation: fundId={}, donorId={}", request.getFundId(), donor.getId());
+
+        Donation donation = donationReservationService.reserve(request, donor);
+        logger.info("Donation {} queued for payment creation", donation.getId());
+        return mapToDonationResponse(donation);
+    }
+
+    public DeferredResult<DonationResponse> awaitConfirmation(Long donationId, User donor, long timeoutMs) {
+        DeferredResult<DonationResponse> result = new DeferredResult<>(timeoutMs);
+        Donation donation = findDonorDonation(donationId, donor);
+        if (isConfirmationSettled(donation)) {
+            result.setResult(mapToDonationResponse(donation));
+            return result;
+        }
+
+        result.onTimeout(() -> result.setResult(getDonation(donationId)));
+        confirmationNotifier.register(donationId, result);
+
+        // Диспетчер мог опубликовать результат между чтением и регистрацией
+        Donation current = findDonorDonation(donationId, donor);
+        if (isConfirmationSettled(current)) {
+            result.setResult(mapToDonationResponse(current));
         }
+        return result;
+    }
 
-        try {
-            System.out.println("Creating payment request");
-            PaymentRequest paymentRequest = new PaymentRequest();
-            paymentRequest.setAmount(request.getAmount());
-            paymentRequest.setDescription("Пожертвование в фонд: " + fund.getTitle());
-            paymentRequest.setReturnUrl(request.getReturnUrl());
-            paymentRequest.setMetadata(Map.of(
-                    "fundId", fund.getId().toString(),
-                    "donorId", donor.getId().toString()
-            ));
-
-            System.out.println("Calling payment service");
-            PaymentResponse paymentResponse = paymentService.createPayment(paymentRequest);
-            System.out.println("Payment created with ID: " + paymentResponse.getPaymentId());
-
-            if (paymentResponse.getPaymentId() == null) {
-                throw new PaymentException("Payment ID is null in the response from YooKassa");
-            }
-
-            System.out.println("Creating donation entity");
-            Donation donation = new Donation();
-            donation.setFund(fund);
-            donation.setDonor(donor);
-            donation.setAmount(request.getAmount());
-            donation.setStatus(DonationStatus.PENDING);
-            donation.setDescription(request.getDescription());
-            donation.setPaymentId(paymentResponse.getPaymentId());
-            donation.setCurrency("RUB");
-
-            System.out.println("Saving donation with donor ID: " + donation.getDonor().getId());
-            donationRepository.save(donation);
-            System.out.println("Donation saved successfully");
+    public void publishConfirmation(Donation donation) {
+        confirmationNotifier.publish(donation.getId(), mapToDonationResponse(donation));
+    }
 
-            return mapToDonationResponse(donation, paymentResponse);
-        } catch (Exception e) {
-            System.out.println("Error creating donation: " + e.getMessage());
-            e.printStackTrace();
-            throw new PaymentException("Failed to create payment: " + e.getMessage(), e);
+    private Donation findDonorDonation(Long donationId, User donor) {
+        Donation donation = donationRepository.findById(donationId)
+                .orElseThrow(() -> new GlobalExceptionHandler.ResourceNotFoundException("Donation not found"));
+        if (!donation.getDonor().getId().equals(donor.getId())) {
+            throw new AccessDeniedException("Donation belongs to another donor");
         }
+        return donation;
+    }
+
+    private boolean isConfirmationSettled(Donation donation) {
+        return donation.getConfirmationUrl() != null || donation.getStatus() != DonationStatus.PENDING;
     }
 
     @Transactional
@@ -105,7 +108,17 @@ public class DonationService {
         logger.info("Received payment notification: event={}, paymentId={}", 
             notification.getEvent(), notification.getPaymentId());
 
+        // Повторы ЮKassa, опрос статусов и тестовые эндпоинты могут прислать одно событие несколько раз.
+        // Ключ — id объекта: у refund.* это id возврата, чтобы частичные возвраты одного платежа не склеивались
+        if (processedEventService.isKnownDuplicate(notification.getEvent(), notification.getObjectId())
+                || !processedEventService.tryRecord(notification.getEvent(), notification.getObjectId())) {
+            logger.info("Skipping duplicate notification: event={}, paymentId={}",
+                notification.getEvent(), notification.getPaymentId());
+            return;
+        }
+
         Donation donation = donationRepository.findByPaymentId(notification.getPaymentId())
+                .or(() -> findReservedDonation(notification))
                 .orElseThrow(() -> {
                     logger.error("Donation not found for paymentId: {}", notification.getPaymentId());
                     return new RuntimeException("Donation not found");
@@ -117,11 +130,7 @@ public class DonationService {
         switch (notification.getEvent()) {
             case "payment.succeeded":
                 logger.info("Processing successful payment for donation: id={}", donation.getId());
-                donation.setStatus(DonationStatus.COMPLETED);
-                logger.info("Updating fund amount: fundId={}, currentAmount={}, adding={}",
-                    donation.getFund().getId(), donation.getFund().getCurrentAmount(), donation.getAmount());
-                fundUpdateService.updateFundAmount(donation.getFund().getId(), donation.getAmount());
-                logger.info("Fund amount updated successfully");
+                completeDonation(donation);
                 break;
 
             case "payment.waiting_for_capture":
@@ -132,15 +141,12 @@ public class DonationService {
                         captureResponse.getPaymentId(), captureResponse.getStatus());
                     
                     // После успешного подтверждения платежа, обновляем статус и сумму фонда
-                    donation.setStatus(DonationStatus.COMPLETED);
-                    logger.info("Updating fund amount: fundId={}, currentAmount={}, adding={}", 
-                        donation.getFund().getId(), donation.getFund().getCurrentAmount(), donation.getAmount());
-                    fundUpdateService.updateFundAmount(donation.getFund().getId(), donation.getAmount());
-                    logger.info("Fund amount updated successfully");
+                    completeDonation(donation);
                 } catch (Exception e) {
                     logger.error("Failed to capture payment: id={}, error={}", 
                         notification.getPaymentId(), e.getMessage(), e);
-                    // В случае ошибки оставляем статус PENDING
+                    // Пробрасываем, чтобы входящий журнал повторил уведомление позже
+                    throw new PaymentException("Failed to capture payment " + notification.getPaymentId(), e);
                 }
                 break;
 
@@ -150,9 +156,8 @@ public class DonationService {
                 break;
 
             case "refund.succeeded":
-                logger.info("Processing refund for donation: id={}", donation.getId());
-                donation.setStatus(DonationStatus.REFUNDED);
-                // добавить логику для уменьшения суммы фонда
+                logger.info("Processing refund {} for donation: id={}", notification.getObjectId(), donation.getId());
+                applyRefund(donation, notification.getObjectId(), notification.getAmount());
                 break;
 
             default:
@@ -164,6 +169,69 @@ public class DonationService {
         logger.info("Donation status updated: id={}, newStatus={}", donation.getId(), donation.getStatus());
     }
 
+    // За один платеж приходят и waiting_for_capture, и succeeded: сумма фонда увеличивается только при первом переходе
+    private void completeDonation(Donation donation) {
+        if (donation.getStatus() == DonationStatus.COMPLETED || donation.getStatus() == DonationStatus.REFUNDED) {
+            logger.info("Donation {} is already {}, fund amount unchanged", donation.getId(), donation.getStatus());
+            return;
+        }
+        donation.setStatus(DonationStatus.COMPLETED);
+        logger.info("Crediting fund: fundId={}, adding={}", donation.getFund().getId(), donation.getAmount());
+        fundLedgerService.recordDonation(donation);
+    }
+
+    private void applyRefund(Donation donation, String refundId, BigDecimal amount) {
+        if (donation.getStatus() != DonationStatus.COMPLETED && donation.getStatus() != DonationStatus.REFUNDED) {
+            // Возврат раньше зачисления (succeeded еще в очереди): пусть входящий журнал повторит позже
+            throw new PaymentException("Refund " + refundId + " arrived before donation " + donation.getId() + " was completed");
+        }
+        if (fundLedgerService.recordRefund(donation, refundId, amount)) {
+            donation.setStatus(DonationStatus.REFUNDED);
+        }
+    }
+
+    /**
+     * Запрашивает возврат в ЮKassa. Баланс фонда уменьшается по факту успешного возврата:
+     * сразу, если ЮKassa ответила succeeded, иначе по уведомлению refund.succeeded.
+     * Без транзакции вокруг вызова ЮKassa, чтобы не держать соединение с БД.
+     * Повтор с тем же {@code requestId} (таймаут, 503, двойной клик) возвращает в ЮKassa тот же возврат.
+     */
+    public DonationResponse requestRefund(Long donationId, BigDecimal amount, String requestId) {
+        Donation donation = donationRepository.findById(donationId)
+                .orElseThrow(() -> new GlobalExceptionHandler.ResourceNotFoundException("Donation not found"));
+        if (donation.getStatus() != DonationStatus.COMPLETED) {
+            throw new IllegalStateException("Only completed donations can be refunded");
+        }
+
+        BigDecimal refundAmount = amount != null ? amount : donation.getAmount();
+        YooKassaRefund refund = paymentService.createRefund(donation.getPaymentId(), refundAmount,
+                "Возврат пожертвования #" + donation.getId(), "refund-" + donation.getId() + "-" + requestId);
+        logger.info("Refund {} requested for donation {}: amount={}, status={}",
+                refund.id(), donation.getId(), refundAmount, refund.status());
+
+        if ("succeeded".equals(refund.status())) {
+            applyRefund(donation, refund.id(), refund.amount().toBigDecimal());
+            donationRepository.save(donation);
+        }
+        return mapToDonationResponse(donation);
+    }
+
+    // Процесс мог упасть до attachPayment: ищем резерв по donationId из metadata платежа
+    private Optional<Donation> findReservedDonation(PaymentNotification notification) {
+        String donationId = notification.getMetadataValue("donationId");
+        if (donationId == null) {
+            return Optional.empty();
+        }
+        return donationRepository.findById(Long.valueOf(donationId))
+                .filter(donation -> donation.getPaymentId() == null)
+                .map(donation -> {
+                    logger.info("Attaching paymentId {} to orphaned donation {}", notification.getPaymentId(), donation.getId());
+                    donation.setPaymentId(notification.getPaymentId());
+                    donation.setNextCheckAt(LocalDateTime.now().plus(PaymentStatusCheckService.FIRST_CHECK_DELAY));
+                    return donation;
+                });
+    }
+
     public List<DonationResponse> getFundDonations(Long fundId) {
         return donationRepository.findByFundId(fundId).stream()
                 .map(this::mapToDonationResponse)
@@ -180,6 +248,7 @@ public class DonationService {
         DonationResponse response = new DonationResponse();
         response.setId(donation.getId());
         response.setPaymentId(donation.getPaymentId());
+        response.setConfirmationUrl(donation.getConfirmationUrl());
         response.setStatus(donation.getStatus());
         response.setAmount(donation.getAmount());
         response.setCurrency(donation.getCurrency());
@@ -189,12 +258,6 @@ public class DonationService {
         return response;
     }
 
-    private DonationResponse mapToDonationResponse(Donation donation, PaymentResponse paymentResponse) {
-        DonationResponse response = mapToDonationResponse(donation);
-        response.setConfirmationUrl(paymentResponse.getConfirmationUrl());
-        return response;
-    }
-
     public DonationResponse getDonation(Long donationId) {
         Donation donation = donationRepository.findById(donationId)
                 .orElseThrow(() -> new RuntimeException("Donation not found"));
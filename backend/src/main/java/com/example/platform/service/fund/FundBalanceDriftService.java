@@ -0,0 +1,77 @@
+package com.example.platform.service.fund;
+
+import com.example.platform.dto.fund.BalanceDriftReport;
+import com.example.platform.dto.fund.FundBalanceDrift;
+import com.example.platform.repository.FundRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поиск и исправление расхождений Fund.currentAmount с суммой пожертвований.
+ * Ожидаемые суммы всех фондов считаются одним агрегатным запросом, исправления применяются
+ * порциями в коротких транзакциях и проводятся через журнал как корректировки.
+ */
+@Service
+public class FundBalanceDriftService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FundBalanceDriftService.class);
+
+    private final FundRepository fundRepository;
+
+    @Value("${payments.ledger.drift.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${payments.ledger.drift.dry-run:false}")
+    private boolean scheduledDryRun;
+
+    public FundBalanceDriftService(FundRepository fundRepository) {
+        this.fundRepository = fundRepository;
+    }
+
+    @Scheduled(cron = "${payments.ledger.drift.cron:0 0 4 * * *}")
+    public void repairScheduled() {
+        repair(null, scheduledDryRun);
+    }
+
+    /**
+     * Сверяет фонды (все, если {@code fundIds} пуст) и при {@code dryRun = false} исправляет расхождения.
+     */
+    public BalanceDriftReport repair(Collection<Long> fundIds, boolean dryRun) {
+        boolean allFunds = fundIds == null || fundIds.isEmpty();
+        List<FundBalanceDrift> drifts = allFunds
+                ? fundRepository.findBalanceDrift()
+                : fundRepository.findBalanceDrift(fundIds);
+
+        List<BalanceDriftReport.Drift> funds = drifts.stream().map(BalanceDriftReport.Drift::from).toList();
+        BigDecimal totalDelta = funds.stream()
+                .map(BalanceDriftReport.Drift::delta)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        int corrected = 0;
+        if (!dryRun && !drifts.isEmpty()) {
+            String runId = "drift:" + System.currentTimeMillis();
+            for (int i = 0; i < drifts.size(); i += chunkSize) {
+                List<FundBalanceDrift> chunk = drifts.subList(i, Math.min(i + chunkSize, drifts.size()));
+                corrected += fundRepository.correctBalances(
+                        chunk.stream().map(FundBalanceDrift::getFundId).toArray(Long[]::new),
+                        chunk.stream().map(FundBalanceDrift::getStoredAmount).toArray(BigDecimal[]::new),
+                        chunk.stream().map(FundBalanceDrift::getExpectedAmount).toArray(BigDecimal[]::new),
+                        runId);
+            }
+        }
+
+        long checked = allFunds ? fundRepository.count() : fundIds.size();
+        if (!drifts.isEmpty()) {
+            logger.warn("Balance drift: {} of {} funds drifted by {} in total, corrected {}{}",
+                    drifts.size(), checked, totalDelta, corrected, dryRun ? " (dry run)" : "");
+        }
+        return new BalanceDriftReport(dryRun, checked, drifts.size(), corrected, totalDelta, funds);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.platform.service.fund;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Периодически снимает балансы фондов, чтобы расчет по журналу читал только короткий хвост записей.
+ */
+@Service
+public class FundBalanceSnapshotScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FundBalanceSnapshotScheduler.class);
+
+    private final FundLedgerService ledgerService;
+
+    public FundBalanceSnapshotScheduler(FundLedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    // Фонды, собранные до появления журнала, получают запись начального остатка
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordOpeningBalances() {
+        int recorded = ledgerService.recordOpeningBalances();
+        if (recorded > 0) {
+            logger.info("Recorded opening ledger balances for {} funds", recorded);
+        }
+    }
+
+    @Scheduled(cron = "${payments.ledger.snapshot-cron:0 0 * * * *}")
+    public void snapshotBalances() {
+        for (Long fundId : ledgerService.findFundsToSnapshot()) {
+            try {
+                ledgerService.snapshot(fundId);
+            } catch (Exception e) {
+                logger.error("Failed to snapshot balance of fund {}: {}", fundId, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.platform.service.fund;
+
+import com.example.platform.model.Donation;
+import com.example.platform.model.Enum.LedgerEntryType;
+import com.example.platform.model.Fund;
+import com.example.platform.model.FundBalanceSnapshot;
+import com.example.platform.model.FundLedgerEntry;
+import com.example.platform.repository.FundBalanceSnapshotRepository;
+import com.example.platform.repository.FundLedgerRepository;
+import com.example.platform.repository.FundRepository;
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Журнал движений по балансам фондов. Fund.currentAmount — проекция журнала,
+ * которая обновляется в той же транзакции и при расхождении пересчитывается {@link #rebuild}.
+ */
+@Service
+public class FundLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FundLedgerService.class);
+
+    private static final EnumSet<LedgerEntryType> REVERSALS = EnumSet.of(LedgerEntryType.REFUND, LedgerEntryType.PARTIAL_REFUND);
+
+    private final FundLedgerRepository ledgerRepository;
+    private final FundBalanceSnapshotRepository snapshotRepository;
+    private final FundRepository fundRepository;
+    private final FundUpdateService fundUpdateService;
+
+    public FundLedgerService(FundLedgerRepository ledgerRepository,
+                             FundBalanceSnapshotRepository snapshotRepository,
+                             FundRepository fundRepository,
+                             FundUpdateService fundUpdateService) {
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.fundRepository = fundRepository;
+        this.fundUpdateService = fundUpdateService;
+    }
+
+    @Transactional
+    public boolean recordDonation(Donation donation) {
+        return append(donation.getFund(), donation, LedgerEntryType.DONATION, donation.getAmount(),
+                "payment:" + donation.getPaymentId(), null);
+    }
+
+    /**
+     * Проводит возврат по пожертвованию. Возвращает true, если пожертвование возвращено полностью.
+     */
+    @Transactional
+    public boolean recordRefund(Donation donation, String refundId, BigDecimal amount) {
+        BigDecimal alreadyRefunded = ledgerRepository.sumReversed(donation.getId(), REVERSALS);
+        if (ledgerRepository.existsByExternalId("refund:" + refundId)) {
+            return alreadyRefunded.compareTo(donation.getAmount()) >= 0;
+        }
+
+        BigDecimal refunded = alreadyRefunded.add(amount);
+        if (refunded.compareTo(donation.getAmount()) > 0) {
+            throw new IllegalStateException("Refund exceeds donation amount: donation " + donation.getId());
+        }
+        boolean full = refunded.compareTo(donation.getAmount()) == 0;
+        append(donation.getFund(), donation, full ? LedgerEntryType.REFUND : LedgerEntryType.PARTIAL_REFUND,
+                amount.negate(), "refund:" + refundId, null);
+        return full;
+    }
+
+    @Transactional
+    public void recordAdjustment(Long fundId, BigDecimal amount, String comment) {
+        Fund fund = fundRepository.findById(fundId)
+                .orElseThrow(() -> new GlobalExceptionHandler.ResourceNotFoundException("Fund not found"));
+        append(fund, null, LedgerEntryType.ADJUSTMENT, amount, null, comment);
+    }
+
+    /**
+     * Баланс по журналу: последний снимок плюс записи после него.
+     */
+    public BigDecimal getBalance(Long fundId) {
+        return snapshotRepository.findTopByFundIdOrderByLastEntryIdDesc(fundId)
+                .map(snapshot -> snapshot.getBalance().add(ledgerRepository.sumAfter(fundId, snapshot.getLastEntryId())))
+                .orElseGet(() -> ledgerRepository.sumAfter(fundId, 0L));
+    }
+
+    @Transactional
+    public BigDecimal snapshot(Long fundId) {
+        lockFund(fundId);
+        BigDecimal balance = getBalance(fundId);
+        saveSnapshot(fundId, balance);
+        return balance;
+    }
+
+    /**
+     * Пересчитывает баланс фонда по всему журналу одним агрегатом и записывает свежий снимок.
+     */
+    @Transactional
+    public BigDecimal rebuild(Long fundId) {
+        lockFund(fundId);
+        BigDecimal balance = ledgerRepository.sumAfter(fundId, 0L);
+        fundRepository.setCurrentAmount(fundId, balance);
+        saveSnapshot(fundId, balance);
+        logger.info("Rebuilt balance of fund {} from ledger: {}", fundId, balance);
+        return balance;
+    }
+
+    public List<Long> findFundsToSnapshot() {
+        return ledgerRepository.findFundIdsWithEntriesAfterSnapshot();
+    }
+
+    @Transactional
+    public int recordOpeningBalances() {
+        return ledgerRepository.insertOpeningBalances();
+    }
+
+    // Сначала обновляем фонд (берет блокировку строки), потом пишем запись: снимок под той же блокировкой
+    // видит все записи фонда с меньшими id
+    private boolean append(Fund fund, Donation donation, LedgerEntryType type, BigDecimal amount,
+                           String externalId, String comment) {
+        if (externalId != null && ledgerRepository.existsByExternalId(externalId)) {
+            logger.info("Ledger entry {} already recorded", externalId);
+            return false;
+        }
+        fundUpdateService.updateFundAmount(fund.getId(), amount);
+
+        FundLedgerEntry entry = new FundLedgerEntry();
+        entry.setFund(fund);
+        entry.setDonation(donation);
+        entry.setType(type);
+        entry.setAmount(amount);
+        entry.setExternalId(externalId);
+        entry.setComment(comment);
+        ledgerRepository.save(entry);
+        logger.info("Ledger: fund={}, type={}, amount={}, externalId={}", fund.getId(), type, amount, externalId);
+        return true;
+    }
+
+    private void lockFund(Long fundId) {
+        if (fundRepository.lockById(fundId) == null) {
+            throw new GlobalExceptionHandler.ResourceNotFoundException("Fund not found");
+        }
+    }
+
+    private void saveSnapshot(Long fundId, BigDecimal balance) {
+        FundBalanceSnapshot snapshot = new FundBalanceSnapshot();
+        snapshot.setFund(fundRepository.getReferenceById(fundId));
+        snapshot.setBalance(balance);
+        snapshot.setLastEntryId(ledgerRepository.findLastEntryId(fundId));
+        snapshotRepository.save(snapshot);
+    }
+}
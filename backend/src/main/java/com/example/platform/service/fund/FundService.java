@@ -6,10 +6,12 @@ import com.example.platform.mapper.FundMapper;
 import com.example.platform.model.Fund;
 import com.example.platform.model.Enum.FundStatus;
 import com.example.platform.model.Enum.Role;
+import com.example.platform.model.UploadSession;
 import com.example.platform.model.User;
 import com.example.platform.repository.FundRepository;
 import com.example.platform.repository.UserRepository;
 import com.example.platform.service.donate.DonationService;
+import com.example.platform.service.upload.UploadService;
 import jakarta.transaction.Transactional;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -35,13 +37,17 @@ public class FundService {
 
     private final DonationService donationService;
 
+    private final UploadService uploadService;
+
     private static final Logger logger = LoggerFactory.getLogger(FundService.class);
 
-    public FundService(FundRepository fundRepository, FundMapper fundMapper, UserRepository userRepository, @Lazy DonationService donationService) {
+    public FundService(FundRepository fundRepository, FundMapper fundMapper, UserRepository userRepository, @Lazy DonationService donationService,
+                       UploadService uploadService) {
         this.fundRepository = fundRepository;
         this.fundMapper = fundMapper;
         this.userRepository = userRepository;
         this.donationService = donationService;
+        this.uploadService = uploadService;
     }
 
     @Transactional
@@ -60,8 +66,11 @@ public class FundService {
             fund.setImageType(imageFile.getContentType());
             fund.setImageData(imageFile.getBytes());
         }
+        UploadSession upload = consumeImageUpload(fundRequest, fund, currentUser);
 
-        return fundMapper.toResponse(fundRepository.save(fund));
+        Fund saved = fundRepository.saveAndFlush(fund);
+        copyImage(upload, saved);
+        return fundMapper.toResponse(saved);
     }
 
     @Transactional
@@ -90,9 +99,12 @@ public class FundService {
             fund.setImageType(imageFile.getContentType());
             fund.setImageData(imageFile.getBytes());
         }
+        UploadSession upload = consumeImageUpload(fundRequest, fund, getCurrentUser());
 
             fundMapper.updateFromDto(fundRequest, fund);
-            return fundMapper.toResponse(fundRepository.save(fund));
+            Fund saved = fundRepository.saveAndFlush(fund);
+            copyImage(upload, saved);
+            return fundMapper.toResponse(saved);
 
     }
 
@@ -137,6 +149,24 @@ public class FundService {
         }
     }
 
+    private UploadSession consumeImageUpload(FundRequest fundRequest, Fund fund, User currentUser) {
+        if (fundRequest.getImageUploadId() == null) {
+            return null;
+        }
+        UploadSession upload = uploadService.consume(fundRequest.getImageUploadId(), currentUser);
+        fund.setImageName(upload.getFileName());
+        fund.setImageType(upload.getFileType());
+        fund.setImageData(null);
+        return upload;
+    }
+
+    // После flush: иначе Hibernate при коммите перезапишет image_data значением из сущности
+    private void copyImage(UploadSession upload, Fund fund) {
+        if (upload != null) {
+            uploadService.copyToFundImage(upload, fund.getId());
+        }
+    }
+
     private void checkOwner(Fund fund) {
         User currentUser = getCurrentUser();
         boolean isAdmin = currentUser.getRole() == Role.ADMIN;
@@ -1,7 +1,6 @@
 package com.example.platform.service.fund;
 
 import com.example.platform.model.Enum.FundStatus;
-import com.example.platform.model.Fund;
 import com.example.platform.repository.FundRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
@@ -17,16 +16,14 @@ public class FundUpdateService {
         this.fundRepository = fundRepository;
     }
 
+    // Изменение одним UPDATE: параллельные пожертвования в один фонд не теряют друг друга
     @Transactional
     public void updateFundAmount(Long fundId, BigDecimal amount) {
-        Fund fund = fundRepository.findById(fundId)
-                .orElseThrow(() -> new RuntimeException("Fund not found"));
-
-        fund.setCurrentAmount(fund.getCurrentAmount().add(amount));
-        if (fund.getCurrentAmount().compareTo(fund.getTargetAmount()) >= 0) {
-            fund.setStatus(FundStatus.COMPLETED);
+        if (fundRepository.addToCurrentAmount(fundId, amount) == 0) {
+            throw new RuntimeException("Fund not found");
+        }
+        if (amount.signum() > 0) {
+            fundRepository.completeIfTargetReached(fundId, FundStatus.ACTIVE, FundStatus.COMPLETED);
         }
-
-        fundRepository.save(fund);
     }
 }
@@ -0,0 +1,113 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.model.Enum.InboxStatus;
+import com.example.platform.model.PaymentNotificationInbox;
+import com.example.platform.repository.PaymentNotificationInboxRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Входящий журнал уведомлений ЮKassa: вебхук только дописывает строку,
+ * обработку выполняет {@link PaymentNotificationWorker}.
+ */
+@Service
+public class PaymentNotificationInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationInboxService.class);
+
+    private final PaymentNotificationInboxRepository inboxRepository;
+
+    @Value("${payments.inbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${payments.inbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    public PaymentNotificationInboxService(PaymentNotificationInboxRepository inboxRepository) {
+        this.inboxRepository = inboxRepository;
+    }
+
+    @Transactional
+    public Long append(String paymentId, String event, String payload) {
+        PaymentNotificationInbox entry = new PaymentNotificationInbox();
+        entry.setPaymentId(paymentId);
+        entry.setEvent(event);
+        entry.setPayload(payload);
+        entry.setNextAttemptAt(LocalDateTime.now());
+        return inboxRepository.save(entry).getId();
+    }
+
+    @Transactional
+    public List<PaymentNotificationInbox> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentNotificationInbox> entries = inboxRepository.lockDueEntries(now, now.minusSeconds(leaseSeconds), limit);
+        for (PaymentNotificationInbox entry : entries) {
+            entry.setStatus(InboxStatus.PROCESSING);
+            entry.setClaimedAt(now);
+            entry.setAttempts(entry.getAttempts() + 1);
+        }
+        return inboxRepository.saveAll(entries);
+    }
+
+    @Transactional
+    public void markProcessed(Long entryId) {
+        inboxRepository.findById(entryId).ifPresent(entry -> {
+            entry.setStatus(InboxStatus.PROCESSED);
+            entry.setProcessedAt(LocalDateTime.now());
+            entry.setLastError(null);
+        });
+    }
+
+    @Transactional
+    public void markAttemptFailed(Long entryId, String error) {
+        inboxRepository.findById(entryId).ifPresent(entry -> {
+            entry.setLastError(error);
+            if (entry.getAttempts() >= maxAttempts) {
+                logger.error("Notification {} ({} for payment {}) moved to dead letters after {} attempts: {}",
+                        entry.getId(), entry.getEvent(), entry.getPaymentId(), entry.getAttempts(), error);
+                entry.setStatus(InboxStatus.DEAD);
+                return;
+            }
+            entry.setStatus(InboxStatus.PENDING);
+            entry.setNextAttemptAt(LocalDateTime.now().plus(backoff(entry.getAttempts())));
+            logger.warn("Notification {} for payment {} failed (attempt {}), retry at {}: {}",
+                    entry.getId(), entry.getPaymentId(), entry.getAttempts(), entry.getNextAttemptAt(), error);
+        });
+    }
+
+    public List<PaymentNotificationInbox> getDeadLetters() {
+        return inboxRepository.findByStatusOrderByIdAsc(InboxStatus.DEAD);
+    }
+
+    @Transactional
+    public void replay(Long entryId) {
+        PaymentNotificationInbox entry = inboxRepository.findById(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Notification not found: " + entryId));
+        requeue(entry);
+    }
+
+    @Transactional
+    public int replayDeadLetters() {
+        List<PaymentNotificationInbox> dead = inboxRepository.findByStatusOrderByIdAsc(InboxStatus.DEAD);
+        dead.forEach(this::requeue);
+        return dead.size();
+    }
+
+    private void requeue(PaymentNotificationInbox entry) {
+        logger.info("Replaying notification {} ({} for payment {})", entry.getId(), entry.getEvent(), entry.getPaymentId());
+        entry.setStatus(InboxStatus.PENDING);
+        entry.setAttempts(0);
+        entry.setNextAttemptAt(LocalDateTime.now());
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofSeconds(Math.min(5L << Math.min(attempts - 1, 10), 600));
+    }
+}
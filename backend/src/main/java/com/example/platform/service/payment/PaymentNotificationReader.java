@@ -0,0 +1,36 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.dto.payment.PaymentNotification;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Читает уведомление ЮKassa за один проход потокового парсера.
+ * ЮKassa иногда присылает уведомление обернутым в массив — берется первый элемент.
+ */
+@Component
+public class PaymentNotificationReader {
+
+    private final ObjectMapper objectMapper;
+
+    public PaymentNotificationReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public PaymentNotification read(byte[] body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Payment notification must be a JSON object");
+            }
+            return objectMapper.readValue(parser, PaymentNotification.class);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.dto.payment.PaymentNotification;
+import com.example.platform.model.PaymentNotificationInbox;
+import com.example.platform.service.donate.DonationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Разбирает входящий журнал уведомлений на пуле потоков.
+ * Уведомления одного платежа не обрабатываются параллельно и идут по порядку поступления.
+ */
+@Service
+public class PaymentNotificationWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationWorker.class);
+
+    private final PaymentNotificationInboxService inboxService;
+    private final DonationService donationService;
+    private final PaymentNotificationReader notificationReader;
+    private final TaskExecutor executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${payments.inbox.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${payments.inbox.batch-size:50}")
+    private int batchSize;
+
+    public PaymentNotificationWorker(PaymentNotificationInboxService inboxService,
+                                     DonationService donationService,
+                                     PaymentNotificationReader notificationReader,
+                                     @Qualifier("paymentNotificationExecutor") TaskExecutor executor) {
+        this.inboxService = inboxService;
+        this.donationService = donationService;
+        this.notificationReader = notificationReader;
+        this.executor = executor;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.inbox.poll-interval-ms:200}")
+    public void drain() {
+        int free = Math.min(batchSize, workerThreads * 2 - inFlight.get());
+        if (free <= 0) {
+            return;
+        }
+
+        List<PaymentNotificationInbox> claimed = inboxService.claimDue(free);
+        for (PaymentNotificationInbox entry : claimed) {
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    process(entry);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void process(PaymentNotificationInbox entry) {
+        try {
+            PaymentNotification notification = notificationReader.read(entry.getPayload().getBytes(StandardCharsets.UTF_8));
+            donationService.handlePaymentNotification(notification);
+            inboxService.markProcessed(entry.getId());
+        } catch (Exception e) {
+            try {
+                inboxService.markAttemptFailed(entry.getId(), e.getMessage());
+            } catch (Exception inner) {
+                // Строка останется PROCESSING и будет перезахвачена после истечения аренды
+                logger.error("Failed to record failure for notification {}: {}", entry.getId(), inner.getMessage(), inner);
+            }
+        }
+    }
+}
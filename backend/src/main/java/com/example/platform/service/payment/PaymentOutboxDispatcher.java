@@ -0,0 +1,121 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.dto.payment.PaymentRequest;
+import com.example.platform.dto.payment.PaymentResponse;
+import com.example.platform.exception.PaymentException;
+import com.example.platform.exception.PaymentGatewayUnavailableException;
+import com.example.platform.model.Donation;
+import com.example.platform.model.PaymentOutbox;
+import com.example.platform.service.donate.DonationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Забирает задания из payment_outbox (FOR UPDATE SKIP LOCKED, поэтому узлов может быть несколько)
+ * и создает платежи в ЮKassa на отдельном пуле потоков.
+ */
+@Service
+public class PaymentOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentOutboxDispatcher.class);
+
+    private final PaymentOutboxService paymentOutboxService;
+    private final PaymentService paymentService;
+    private final DonationService donationService;
+    private final TaskExecutor executor;
+    private static final Duration GATEWAY_UNAVAILABLE_DELAY = Duration.ofSeconds(10);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Value("${payments.outbox.dispatcher-threads:4}")
+    private int dispatcherThreads;
+
+    @Value("${payments.outbox.batch-size:20}")
+    private int batchSize;
+
+    public PaymentOutboxDispatcher(PaymentOutboxService paymentOutboxService,
+                                   PaymentService paymentService,
+                                   DonationService donationService,
+                                   @Qualifier("paymentDispatchExecutor") TaskExecutor executor) {
+        this.paymentOutboxService = paymentOutboxService;
+        this.paymentService = paymentService;
+        this.donationService = donationService;
+        this.executor = executor;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.outbox.poll-interval-ms:500}")
+    public void dispatchDue() {
+        // Не забираем больше, чем можем обработать, иначе строки зря висят в IN_PROGRESS
+        int free = Math.min(batchSize, dispatcherThreads * 2 - inFlight.get());
+        if (free <= 0) {
+            return;
+        }
+
+        List<PaymentOutbox> claimed = paymentOutboxService.claimDue(free);
+        for (PaymentOutbox entry : claimed) {
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    dispatch(entry);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void dispatch(PaymentOutbox entry) {
+        Donation donation = entry.getDonation();
+        try {
+            PaymentResponse paymentResponse = paymentService.createPayment(toPaymentRequest(entry), entry.getIdempotenceKey());
+            if (paymentResponse.getPaymentId() == null) {
+                throw new PaymentException("Payment ID is null in the response from YooKassa");
+            }
+
+            Donation updated = paymentOutboxService.markSent(entry.getId(), paymentResponse.getPaymentId(), paymentResponse.getConfirmationUrl());
+            logger.info("Donation {} got paymentId {}", updated.getId(), updated.getPaymentId());
+            donationService.publishConfirmation(updated);
+        } catch (PaymentGatewayUnavailableException e) {
+            try {
+                paymentOutboxService.postpone(entry.getId(), GATEWAY_UNAVAILABLE_DELAY);
+            } catch (Exception inner) {
+                // Как и при ошибке ниже: строку перезахватят после истечения аренды
+                logger.error("Failed to postpone outbox entry for donation {}: {}", donation.getId(), inner.getMessage(), inner);
+            }
+        } catch (Exception e) {
+            try {
+                Donation failed = paymentOutboxService.markAttemptFailed(entry.getId(), e.getMessage());
+                if (failed != null) {
+                    donationService.publishConfirmation(failed);
+                }
+            } catch (Exception inner) {
+                // Строка останется IN_PROGRESS и будет перезахвачена после истечения аренды
+                logger.error("Failed to record outbox failure for donation {}: {}", donation.getId(), inner.getMessage(), inner);
+            }
+        }
+    }
+
+    private PaymentRequest toPaymentRequest(PaymentOutbox entry) {
+        Donation donation = entry.getDonation();
+        PaymentRequest paymentRequest = new PaymentRequest();
+        paymentRequest.setAmount(donation.getAmount());
+        paymentRequest.setDescription("Пожертвование в фонд: " + donation.getFund().getTitle());
+        paymentRequest.setReturnUrl(entry.getReturnUrl());
+        paymentRequest.setMetadata(Map.of(
+                "fundId", donation.getFund().getId().toString(),
+                "donorId", donation.getDonor().getId().toString(),
+                "donationId", donation.getId().toString()
+        ));
+        return paymentRequest;
+    }
+}
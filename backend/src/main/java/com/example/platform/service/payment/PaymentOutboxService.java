@@ -0,0 +1,117 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.model.Donation;
+import com.example.platform.model.Enum.DonationStatus;
+import com.example.platform.model.Enum.OutboxStatus;
+import com.example.platform.model.PaymentOutbox;
+import com.example.platform.repository.DonationRepository;
+import com.example.platform.repository.PaymentOutboxRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Короткие транзакции над outbox. Строки блокируются только на время захвата,
+ * HTTP-вызов в ЮKassa идет уже после коммита.
+ */
+@Service
+public class PaymentOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentOutboxService.class);
+
+    private final PaymentOutboxRepository paymentOutboxRepository;
+    private final DonationRepository donationRepository;
+
+    @Value("${payments.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payments.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${payments.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${payments.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    public PaymentOutboxService(PaymentOutboxRepository paymentOutboxRepository, DonationRepository donationRepository) {
+        this.paymentOutboxRepository = paymentOutboxRepository;
+        this.donationRepository = donationRepository;
+    }
+
+    @Transactional
+    public List<PaymentOutbox> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentOutbox> entries = paymentOutboxRepository.lockDueEntries(now, now.minusSeconds(leaseSeconds), limit);
+        for (PaymentOutbox entry : entries) {
+            entry.setStatus(OutboxStatus.IN_PROGRESS);
+            entry.setClaimedAt(now);
+            entry.setAttempts(entry.getAttempts() + 1);
+        }
+        return paymentOutboxRepository.saveAll(entries);
+    }
+
+    @Transactional
+    public Donation markSent(Long outboxId, String paymentId, String confirmationUrl) {
+        PaymentOutbox entry = paymentOutboxRepository.findById(outboxId)
+                .orElseThrow(() -> new RuntimeException("Outbox entry not found"));
+        entry.setStatus(OutboxStatus.SENT);
+        entry.setLastError(null);
+
+        Donation donation = entry.getDonation();
+        donation.setPaymentId(paymentId);
+        donation.setConfirmationUrl(confirmationUrl);
+        donation.setNextCheckAt(LocalDateTime.now().plus(PaymentStatusCheckService.FIRST_CHECK_DELAY));
+        return donationRepository.save(donation);
+    }
+
+    /**
+     * Планирует повторную попытку с экспоненциальной задержкой.
+     * Возвращает пожертвование, если попытки исчерпаны и оно помечено FAILED, иначе null.
+     */
+    @Transactional
+    public Donation markAttemptFailed(Long outboxId, String error) {
+        PaymentOutbox entry = paymentOutboxRepository.findById(outboxId)
+                .orElseThrow(() -> new RuntimeException("Outbox entry not found"));
+        entry.setLastError(error);
+
+        if (entry.getAttempts() >= maxAttempts) {
+            logger.error("Giving up on payment creation for donation {} after {} attempts: {}",
+                    entry.getDonation().getId(), entry.getAttempts(), error);
+            entry.setStatus(OutboxStatus.FAILED);
+            Donation donation = entry.getDonation();
+            donation.setStatus(DonationStatus.FAILED);
+            return donationRepository.save(donation);
+        }
+
+        entry.setStatus(OutboxStatus.PENDING);
+        entry.setNextAttemptAt(LocalDateTime.now().plus(backoff(entry.getAttempts())));
+        logger.warn("Payment creation for donation {} failed (attempt {}), retry at {}: {}",
+                entry.getDonation().getId(), entry.getAttempts(), entry.getNextAttemptAt(), error);
+        return null;
+    }
+
+    // Шлюз недоступен (открыт circuit breaker): откладываем без расходования попытки
+    @Transactional
+    public void postpone(Long outboxId, Duration delay) {
+        paymentOutboxRepository.findById(outboxId).ifPresent(entry -> {
+            entry.setStatus(OutboxStatus.PENDING);
+            entry.setAttempts(entry.getAttempts() - 1);
+            entry.setNextAttemptAt(LocalDateTime.now().plus(delay));
+        });
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = backoffBaseMs << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, backoffMaxMs);
+        // Джиттер, чтобы после сбоя шлюза повторы не шли одной волной
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+}
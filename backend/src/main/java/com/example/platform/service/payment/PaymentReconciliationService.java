@@ -0,0 +1,316 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.dto.payment.LocalPaymentState;
+import com.example.platform.dto.payment.PaymentNotification;
+import com.example.platform.dto.payment.yookassa.YooKassaPayment;
+import com.example.platform.dto.payment.yookassa.YooKassaPaymentList;
+import com.example.platform.model.Enum.DiscrepancyType;
+import com.example.platform.model.Enum.DonationStatus;
+import com.example.platform.model.ReconciliationDiscrepancy;
+import com.example.platform.model.ReconciliationReport;
+import com.example.platform.repository.DonationRepository;
+import com.example.platform.repository.ReconciliationDiscrepancyRepository;
+import com.example.platform.repository.ReconciliationReportRepository;
+import com.example.platform.service.donate.DonationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ночная сверка пожертвований со списком платежей ЮKassa.
+ * Платежи окна выгружаются постранично по курсору и сортируются по id; пожертвования читаются
+ * keyset-страницами в том же порядке, и обе последовательности сливаются без поиска по одной записи.
+ * Список ЮKassa за окно держится в памяти целиком (порядка 1 КБ на платеж), поэтому его размер ограничен
+ * payments.reconciliation.max-gateway-payments: при превышении сверка завершается с ошибкой и окно нужно сузить.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    private static final int GATEWAY_PAGE_SIZE = 100;
+
+    private final PaymentService paymentService;
+    private final DonationService donationService;
+    private final DonationRepository donationRepository;
+    private final ReconciliationReportRepository reportRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+
+    @Value("${payments.reconciliation.chunk-size:500}")
+    private int chunkSize;
+
+    // Платеж создается позже резерва пожертвования: окно ЮKassa сдвигаем на эту величину
+    @Value("${payments.reconciliation.gateway-lag:10m}")
+    private Duration gatewayLag;
+
+    @Value("${payments.reconciliation.auto-fix:true}")
+    private boolean autoFix;
+
+    @Value("${payments.reconciliation.max-gateway-payments:100000}")
+    private int maxGatewayPayments;
+
+    public PaymentReconciliationService(PaymentService paymentService,
+                                        DonationService donationService,
+                                        DonationRepository donationRepository,
+                                        ReconciliationReportRepository reportRepository,
+                                        ReconciliationDiscrepancyRepository discrepancyRepository) {
+        this.paymentService = paymentService;
+        this.donationService = donationService;
+        this.donationRepository = donationRepository;
+        this.reportRepository = reportRepository;
+        this.discrepancyRepository = discrepancyRepository;
+    }
+
+    @Scheduled(cron = "${payments.reconciliation.cron:0 30 3 * * *}")
+    public void reconcileYesterday() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        reconcile(today.minusDays(1), today);
+    }
+
+    public ReconciliationReport reconcile(LocalDateTime from, LocalDateTime to) {
+        ReconciliationReport report = new ReconciliationReport();
+        report.setWindowFrom(from);
+        report.setWindowTo(to);
+        report.setStartedAt(LocalDateTime.now());
+        report = reportRepository.save(report);
+
+        Batch batch = new Batch(report);
+        try {
+            List<YooKassaPayment> gateway = fetchGatewayPayments(from, to.plus(gatewayLag));
+            report.setGatewayPayments(gateway.size());
+
+            List<YooKassaPayment> unmatched = new ArrayList<>();
+            int next = 0;
+            String afterPaymentId = "";
+            int localCount = 0;
+            while (true) {
+                List<LocalPaymentState> page = donationRepository.findPaymentStates(from, to, afterPaymentId, chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (LocalPaymentState local : page) {
+                    while (next < gateway.size() && gateway.get(next).id().compareTo(local.getPaymentId()) < 0) {
+                        unmatched.add(gateway.get(next++));
+                    }
+                    if (next < gateway.size() && gateway.get(next).id().equals(local.getPaymentId())) {
+                        batch.compare(local, gateway.get(next++));
+                    } else {
+                        batch.add(DiscrepancyType.MISSING_AT_GATEWAY, local, null);
+                    }
+                }
+                localCount += page.size();
+                afterPaymentId = page.get(page.size() - 1).getPaymentId();
+                batch.flush();
+            }
+            unmatched.addAll(gateway.subList(next, gateway.size()));
+            report.setLocalDonations(localCount);
+
+            // Пожертвование могло быть создано до начала окна: ищем остаток одним запросом на порцию
+            for (int i = 0; i < unmatched.size(); i += chunkSize) {
+                List<YooKassaPayment> chunk = unmatched.subList(i, Math.min(i + chunkSize, unmatched.size()));
+                Map<String, LocalPaymentState> locals = donationRepository
+                        .findPaymentStatesByPaymentIds(chunk.stream().map(YooKassaPayment::id).toList())
+                        .stream()
+                        .collect(Collectors.toMap(LocalPaymentState::getPaymentId, Function.identity()));
+                for (YooKassaPayment payment : chunk) {
+                    LocalPaymentState local = locals.get(payment.id());
+                    if (local != null) {
+                        batch.compare(local, payment);
+                    } else {
+                        batch.add(DiscrepancyType.MISSING_LOCALLY, null, payment);
+                    }
+                }
+                batch.flush();
+            }
+        } catch (Exception e) {
+            logger.error("Reconciliation {} failed: {}", report.getId(), e.getMessage(), e);
+            report.setError(e.getMessage());
+        }
+
+        report.setFinishedAt(LocalDateTime.now());
+        report = reportRepository.save(report);
+        logger.info("Reconciliation {} for [{}, {}): gateway={}, local={}, matched={}, fixed={}, flagged={}",
+                report.getId(), from, to, report.getGatewayPayments(), report.getLocalDonations(),
+                report.getMatched(), report.getFixed(), report.getFlagged());
+        return report;
+    }
+
+    public List<ReconciliationDiscrepancy> getDiscrepancies(Long reportId) {
+        return discrepancyRepository.findByReportIdOrderByIdAsc(reportId);
+    }
+
+    private List<YooKassaPayment> fetchGatewayPayments(LocalDateTime from, LocalDateTime to) {
+        ZoneId zone = ZoneId.systemDefault();
+        List<YooKassaPayment> payments = new ArrayList<>();
+        String cursor = null;
+        do {
+            YooKassaPaymentList page = paymentService.listPayments(
+                    from.atZone(zone).toInstant(), to.atZone(zone).toInstant(), cursor, GATEWAY_PAGE_SIZE);
+            if (page == null || page.items() == null) {
+                break;
+            }
+            payments.addAll(page.items());
+            if (payments.size() > maxGatewayPayments) {
+                throw new IllegalStateException("More than " + maxGatewayPayments
+                        + " gateway payments in [" + from + ", " + to + "), reconcile a shorter window");
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        payments.sort(Comparator.comparing(YooKassaPayment::id));
+        return payments;
+    }
+
+    /**
+     * Копит расхождения и исправления порции и применяет их пачкой.
+     */
+    private final class Batch {
+
+        private final ReconciliationReport report;
+        private final List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        private final List<Long> toFail = new ArrayList<>();
+        private final List<YooKassaPayment> toComplete = new ArrayList<>();
+        private final List<Fix> fixes = new ArrayList<>();
+
+        Batch(ReconciliationReport report) {
+            this.report = report;
+        }
+
+        void compare(LocalPaymentState local, YooKassaPayment payment) {
+            DonationStatus status = DonationStatus.valueOf(local.getStatus());
+            BigDecimal gatewayAmount = payment.amount().toBigDecimal();
+            if (local.getAmount().compareTo(gatewayAmount) != 0) {
+                add(DiscrepancyType.AMOUNT_MISMATCH, local, payment);
+                return;
+            }
+
+            switch (payment.status()) {
+                case "succeeded" -> {
+                    if (status == DonationStatus.PENDING || status == DonationStatus.FAILED) {
+                        ReconciliationDiscrepancy discrepancy = add(DiscrepancyType.STATUS_MISMATCH, local, payment);
+                        if (autoFix) {
+                            toComplete.add(payment);
+                            fixes.add(new Fix(discrepancy, DonationStatus.COMPLETED));
+                        }
+                        return;
+                    }
+                }
+                case "canceled" -> {
+                    if (status == DonationStatus.PENDING) {
+                        ReconciliationDiscrepancy discrepancy = add(DiscrepancyType.STATUS_MISMATCH, local, payment);
+                        if (autoFix) {
+                            toFail.add(local.getDonationId());
+                            fixes.add(new Fix(discrepancy, DonationStatus.FAILED));
+                        }
+                        return;
+                    }
+                    if (status != DonationStatus.FAILED) {
+                        // Деньги уже учтены в фонде, а платеж отменен — только вручную
+                        add(DiscrepancyType.STATUS_MISMATCH, local, payment);
+                        return;
+                    }
+                }
+                default -> {
+                    // pending и waiting_for_capture еще решаются вебхуком или опросом статуса
+                    if (status != DonationStatus.PENDING) {
+                        add(DiscrepancyType.STATUS_MISMATCH, local, payment);
+                        return;
+                    }
+                }
+            }
+            report.setMatched(report.getMatched() + 1);
+        }
+
+        // fixed выставляется в flush по результату исправления
+        ReconciliationDiscrepancy add(DiscrepancyType type, LocalPaymentState local, YooKassaPayment payment) {
+            ReconciliationDiscrepancy discrepancy = new ReconciliationDiscrepancy();
+            discrepancy.setReportId(report.getId());
+            discrepancy.setType(type);
+            discrepancy.setFixed(false);
+            if (local != null) {
+                discrepancy.setDonationId(local.getDonationId());
+                discrepancy.setPaymentId(local.getPaymentId());
+                discrepancy.setLocalStatus(DonationStatus.valueOf(local.getStatus()));
+                discrepancy.setLocalAmount(local.getAmount());
+            }
+            if (payment != null) {
+                discrepancy.setPaymentId(payment.id());
+                discrepancy.setGatewayStatus(payment.status());
+                discrepancy.setGatewayAmount(payment.amount().toBigDecimal());
+            }
+            discrepancies.add(discrepancy);
+            return discrepancy;
+        }
+
+        void flush() {
+            if (!toFail.isEmpty()) {
+                donationRepository.updateStatusIfCurrent(toFail, DonationStatus.PENDING, DonationStatus.FAILED);
+                toFail.clear();
+            }
+            // Зачисление идет тем же путем, что и вебхук: журнал фонда и защита от повторов
+            for (YooKassaPayment payment : toComplete) {
+                try {
+                    donationService.handlePaymentNotification(succeededNotification(payment));
+                } catch (Exception e) {
+                    logger.error("Failed to apply succeeded payment {} during reconciliation: {}", payment.id(), e.getMessage());
+                }
+            }
+            toComplete.clear();
+            markFixed();
+            for (ReconciliationDiscrepancy discrepancy : discrepancies) {
+                if (discrepancy.isFixed()) {
+                    report.setFixed(report.getFixed() + 1);
+                } else {
+                    report.setFlagged(report.getFlagged() + 1);
+                }
+            }
+            if (!discrepancies.isEmpty()) {
+                discrepancyRepository.saveAll(discrepancies);
+                discrepancies.clear();
+            }
+        }
+
+        // Исправленным считается только пожертвование, которое после исправления действительно в нужном статусе:
+        // обновление могло не пройти из-за гонки с вебхуком, а зачисление — упасть
+        private void markFixed() {
+            if (fixes.isEmpty()) {
+                return;
+            }
+            Map<String, String> statuses = donationRepository
+                    .findPaymentStatesByPaymentIds(fixes.stream().map(fix -> fix.discrepancy().getPaymentId()).toList())
+                    .stream()
+                    .collect(Collectors.toMap(LocalPaymentState::getPaymentId, LocalPaymentState::getStatus));
+            for (Fix fix : fixes) {
+                fix.discrepancy().setFixed(fix.target().name().equals(statuses.get(fix.discrepancy().getPaymentId())));
+            }
+            fixes.clear();
+        }
+
+        private PaymentNotification succeededNotification(YooKassaPayment payment) {
+            PaymentNotification notification = new PaymentNotification();
+            notification.setType("notification");
+            notification.setEvent("payment.succeeded");
+            notification.setPaymentId(payment.id());
+            notification.setStatus(payment.status());
+            notification.setAmount(payment.amount().toBigDecimal());
+            return notification;
+        }
+    }
+
+    private record Fix(ReconciliationDiscrepancy discrepancy, DonationStatus target) {
+    }
+}
@@ -3,72 +3,114 @@ package com.example.platform.service.payment;
 import com.example.platform.config.YooKassaConfig;
 import com.example.platform.dto.payment.PaymentRequest;
 import com.example.platform.dto.payment.PaymentResponse;
+import com.example.platform.dto.payment.yookassa.YooKassaAmount;
+import com.example.platform.dto.payment.yookassa.YooKassaCaptureRequest;
+import com.example.platform.dto.payment.yookassa.YooKassaConfirmation;
+import com.example.platform.dto.payment.yookassa.YooKassaPayment;
+import com.example.platform.dto.payment.yookassa.YooKassaPaymentList;
+import com.example.platform.dto.payment.yookassa.YooKassaPaymentRequest;
+import com.example.platform.dto.payment.yookassa.YooKassaRefund;
+import com.example.platform.dto.payment.yookassa.YooKassaRefundRequest;
 import com.example.platform.exception.PaymentException;
+import com.example.platform.exception.PaymentGatewayUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
-    private final YooKassaConfig config;
+    private static final String GATEWAY = "yookassa";
     private final RestTemplate restTemplate;
+    private final String apiUrl;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Bulkhead bulkhead;
 
-    public PaymentService(YooKassaConfig config, RestTemplate restTemplate) {
-        this.config = config;
+    // Заголовок не меняется между запросами, поэтому кодируем его один раз
+    private final String authorizationHeader;
+
+    public PaymentService(YooKassaConfig config,
+                          @Qualifier("yooKassaRestTemplate") RestTemplate restTemplate,
+                          CircuitBreakerRegistry circuitBreakerRegistry,
+                          BulkheadRegistry bulkheadRegistry) {
         this.restTemplate = restTemplate;
+        this.apiUrl = config.getApiUrl();
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkhead = bulkheadRegistry.bulkhead(GATEWAY);
+        String auth = config.getShopId() + ":" + config.getSecretKey();
+        this.authorizationHeader = "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
     }
 
-    private static final String YOOKASSA_API_URL = "https://api.yookassa.ru/v3";
-
+    /**
+     * Общий bulkhead ограничивает число одновременных вызовов шлюза,
+     * отдельный circuit breaker на каждую операцию отсекает вызовы при деградации ЮKassa.
+     */
+    private <T> T call(String operation, Supplier<T> request) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(GATEWAY + "-" + operation);
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, request)).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            logger.warn("YooKassa call {} rejected: {}", operation, e.getMessage());
+            throw new PaymentGatewayUnavailableException("Payments temporarily unavailable", e);
+        }
+    }
 
     private HttpHeaders createHeaders() {
-        String auth = config.getShopId() + ":" + config.getSecretKey();
-        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
+        return createHeaders(UUID.randomUUID().toString());
+    }
 
+    private HttpHeaders createHeaders(String idempotenceKey) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Basic " + encodedAuth);
-        headers.set("Idempotence-Key", UUID.randomUUID().toString());
-
+        headers.set(HttpHeaders.AUTHORIZATION, authorizationHeader);
+        headers.set("Idempotence-Key", idempotenceKey);
         return headers;
     }
 
     public PaymentResponse createPayment(PaymentRequest request) {
-        String url = YOOKASSA_API_URL + "/payments";
+        return createPayment(request, UUID.randomUUID().toString());
+    }
+
+    public PaymentResponse createPayment(PaymentRequest request, String idempotenceKey) {
+        String url = apiUrl + "/payments";
         logger.info("Creating payment for amount: {} RUB", request.getAmount());
 
-        Map<String, Object> paymentData = new HashMap<>();
-        paymentData.put("amount", Map.of(
-                "value", request.getAmount().toString(),
-                "currency", "RUB"
-        ));
-        paymentData.put("confirmation", Map.of(
-                "type", "redirect",
-                "return_url", request.getReturnUrl()
-        ));
-        paymentData.put("description", request.getDescription());
-        paymentData.put("metadata", request.getMetadata());
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(paymentData, createHeaders());
-        logger.debug("Payment request data: {}", paymentData);
+        YooKassaPaymentRequest body = new YooKassaPaymentRequest(
+                YooKassaAmount.rub(request.getAmount()),
+                YooKassaConfirmation.redirect(request.getReturnUrl()),
+                null,
+                request.getDescription(),
+                request.getMetadata()
+        );
 
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            logger.info("Payment created successfully with ID: {}", response.getBody().get("id"));
-            return mapToPaymentResponse(response.getBody());
+            YooKassaPayment payment = call("create", () ->
+                    restTemplate.postForObject(url, new HttpEntity<>(body, createHeaders(idempotenceKey)), YooKassaPayment.class));
+            logger.info("Payment created successfully with ID: {}", payment.id());
+            return mapToPaymentResponse(payment);
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to create payment: {}", e.getMessage(), e);
             throw new PaymentException("Failed to create payment: " + e.getMessage(), e);
@@ -76,76 +118,115 @@ public class PaymentService {
     }
 
     public PaymentResponse getPaymentStatus(String paymentId) {
-        String url = YOOKASSA_API_URL + "/payments/" + paymentId;
-        HttpEntity<?> entity = new HttpEntity<>(createHeaders());
-
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    Map.class
-            );
-            return mapToPaymentResponse(response.getBody());
+            return mapToPaymentResponse(getPayment(paymentId));
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new PaymentException("Failed to get payment status", e);
         }
     }
 
+    public YooKassaPayment getPayment(String paymentId) {
+        String url = apiUrl + "/payments/" + paymentId;
+        return call("get", () ->
+                restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(createHeaders()), YooKassaPayment.class).getBody());
+    }
+
+    /**
+     * Страница списка платежей за окно [createdFrom, createdTo). Следующая страница — по nextCursor.
+     */
+    public YooKassaPaymentList listPayments(Instant createdFrom, Instant createdTo, String cursor, int limit) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(apiUrl + "/payments")
+                .queryParam("created_at.gte", createdFrom.toString())
+                .queryParam("created_at.lt", createdTo.toString())
+                .queryParam("limit", limit);
+        if (cursor != null) {
+            uri.queryParam("cursor", cursor);
+        }
+        URI url = uri.encode().build().toUri();
+
+        try {
+            return call("list", () ->
+                    restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(createHeaders()), YooKassaPaymentList.class).getBody());
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PaymentException("Failed to list payments", e);
+        }
+    }
+
     public PaymentResponse capturePayment(String paymentId) {
-        String url = YOOKASSA_API_URL + "/payments/" + paymentId + "/capture";
-        HttpEntity<?> entity = new HttpEntity<>(createHeaders());
+        String url = apiUrl + "/payments/" + paymentId + "/capture";
+        HttpEntity<YooKassaCaptureRequest> entity = new HttpEntity<>(new YooKassaCaptureRequest(null), createHeaders());
 
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            return mapToPaymentResponse(response.getBody());
+            return mapToPaymentResponse(call("capture", () -> restTemplate.postForObject(url, entity, YooKassaPayment.class)));
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new PaymentException("Failed to capture payment", e);
         }
     }
 
     public PaymentResponse cancelPayment(String paymentId) {
-        String url = YOOKASSA_API_URL + "/payments/" + paymentId + "/cancel";
+        String url = apiUrl + "/payments/" + paymentId + "/cancel";
         HttpEntity<?> entity = new HttpEntity<>(createHeaders());
 
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            return mapToPaymentResponse(response.getBody());
+            return mapToPaymentResponse(call("cancel", () -> restTemplate.postForObject(url, entity, YooKassaPayment.class)));
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new PaymentException("Failed to cancel payment", e);
         }
     }
 
-    private PaymentResponse mapToPaymentResponse(Map<String, Object> responseBody) {
-        logger.debug("Mapping payment response: {}", responseBody);
-        
-        Map<String, Object> amountMap = (Map<String, Object>) responseBody.get("amount");
-        String amountValue = amountMap.get("value").toString();
-        String currency = (String) amountMap.get("currency");
-        
-        Map<String, Object> confirmation = (Map<String, Object>) responseBody.get("confirmation");
-        String confirmationUrl = confirmation != null ? (String) confirmation.get("confirmation_url") : null;
-        
-        String createdAtStr = (String) responseBody.get("created_at");
-        LocalDateTime createdAt = Instant.parse(createdAtStr)
-                .atZone(ZoneId.systemDefault())
-                .toLocalDateTime();
-        
-        String paymentId = (String) responseBody.get("id");
-        logger.debug("Extracted payment ID: {}", paymentId);
-        
-        PaymentResponse response = new PaymentResponse(
-                paymentId,
+    public YooKassaRefund createRefund(String paymentId, BigDecimal amount, String description, String idempotenceKey) {
+        String url = apiUrl + "/refunds";
+        YooKassaRefundRequest body = new YooKassaRefundRequest(paymentId, YooKassaAmount.rub(amount), description);
+
+        try {
+            return call("refund", () -> restTemplate.postForObject(url, new HttpEntity<>(body, createHeaders(idempotenceKey)), YooKassaRefund.class));
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PaymentException("Failed to create refund", e);
+        }
+    }
+
+    public YooKassaRefund getRefund(String refundId) {
+        String url = apiUrl + "/refunds/" + refundId;
+
+        try {
+            return call("get-refund", () ->
+                    restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(createHeaders()), YooKassaRefund.class).getBody());
+        } catch (PaymentGatewayUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PaymentException("Failed to get refund", e);
+        }
+    }
+
+    private PaymentResponse mapToPaymentResponse(YooKassaPayment payment) {
+        if (payment == null) {
+            throw new PaymentException("Empty response from YooKassa");
+        }
+
+        String confirmationUrl = payment.confirmation() != null ? payment.confirmation().confirmationUrl() : null;
+        LocalDateTime createdAt = payment.createdAt() != null
+                ? LocalDateTime.ofInstant(payment.createdAt(), ZoneId.systemDefault())
+                : null;
+        // amount, как confirmation и created_at, может отсутствовать в ответе
+        YooKassaAmount amount = payment.amount();
+
+        return new PaymentResponse(
+                payment.id(),
                 confirmationUrl,
-                (String) responseBody.get("status"),
-                new BigDecimal(amountValue),
-                currency,
+                payment.status(),
+                amount != null ? amount.toBigDecimal() : null,
+                amount != null ? amount.currency() : null,
                 createdAt
         );
-        
-        logger.debug("Created PaymentResponse: paymentId={}, status={}, amount={}, currency={}", 
-                response.getPaymentId(), response.getStatus(), response.getAmount(), response.getCurrency());
-        
-        return response;
     }
 }
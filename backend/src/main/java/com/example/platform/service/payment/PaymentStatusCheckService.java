@@ -1,68 +1,179 @@
 package com.example.platform.service.payment;
 
-import com.example.platform.model.Donation;
+import com.example.platform.dto.payment.PendingPaymentCheck;
+import com.example.platform.exception.PaymentGatewayUnavailableException;
 import com.example.platform.model.Enum.DonationStatus;
 import com.example.platform.repository.DonationRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Опрос ЮKassa по зависшим PENDING-пожертвованиям.
+ * У каждого платежа свое время следующей проверки: в первые минуты часто, затем все реже.
+ * Выбираются только платежи, у которых оно подошло; статусы внутри страницы запрашиваются параллельно
+ * с ограничением частоты, а результаты сохраняются короткими пакетными UPDATE.
+ */
 @Service
 public class PaymentStatusCheckService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentStatusCheckService.class);
+
+    public static final Duration FIRST_CHECK_DELAY = Duration.ofMinutes(1);
+
+    // Интервал до следующей проверки по номеру уже сделанной попытки
+    private static final Duration[] CHECK_INTERVALS = {
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(1),
+            Duration.ofMinutes(2),
+            Duration.ofMinutes(5),
+            Duration.ofMinutes(10),
+            Duration.ofMinutes(30),
+            Duration.ofHours(1)
+    };
+
     private final DonationRepository donationRepository;
     private final PaymentService paymentService;
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    private final Executor executor;
+    private final RateLimiter rateLimiter;
+
+    private final AtomicLong overdueBacklog = new AtomicLong();
 
-    public PaymentStatusCheckService(DonationRepository donationRepository, PaymentService paymentService) {
+    @Value("${payments.status-check.chunk-size:200}")
+    private int chunkSize;
+
+    // Сколько ждать оплаты, прежде чем считать pending-платеж брошенным
+    @Value("${payments.status-check.abandon-after:30m}")
+    private Duration abandonAfter;
+
+    public PaymentStatusCheckService(DonationRepository donationRepository,
+                                     PaymentService paymentService,
+                                     @Qualifier("paymentStatusCheckExecutor") Executor executor,
+                                     RateLimiterRegistry rateLimiterRegistry,
+                                     MeterRegistry meterRegistry) {
         this.donationRepository = donationRepository;
         this.paymentService = paymentService;
+        this.executor = executor;
+        this.rateLimiter = rateLimiterRegistry.rateLimiter("yookassa-status-check");
+        Gauge.builder("payments.status_check.overdue", overdueBacklog, AtomicLong::get)
+                .description("Pending payments whose status check is overdue by more than a poll interval")
+                .register(meterRegistry);
     }
 
-    @Scheduled(fixedRate = 100000)
-    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleLegacyPendingPayments() {
+        int scheduled = donationRepository.scheduleUncheckedPayments(DonationStatus.PENDING);
+        if (scheduled > 0) {
+            logger.info("Scheduled status checks for {} pending donations without next_check_at", scheduled);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payments.status-check.poll-interval-ms:15000}")
     public void checkPendingPayments() {
-        logger.info("Starting scheduled check of pending payments");
-        
-
-        LocalDateTime twoMinutesAgo = LocalDateTime.now().minusMinutes(1);
-        List<Donation> pendingDonations = donationRepository.findByStatusAndCreatedAtBefore(
-            DonationStatus.PENDING, 
-            twoMinutesAgo
-        );
-
-        logger.info("Found {} pending donations to check", pendingDonations.size());
-
-        for (Donation donation : pendingDonations) {
-            try {
-                // Проверяем статус платежа в ЮKassa
-                var paymentStatus = paymentService.getPaymentStatus(donation.getPaymentId());
-                String status = paymentStatus.getStatus();
-                
-                // Проверяем различные статусы платежа
-                if ("canceled".equals(status) || 
-                    "expired".equals(status) ||
-                    // Если платеж в статусе pending и прошло больше 2 минут
-                    ("pending".equals(status) && donation.getCreatedAt().isBefore(twoMinutesAgo)) ||
-                    // Если платеж в статусе waiting_for_capture и прошло больше 2 минут
-                    ("waiting_for_capture".equals(status) && donation.getCreatedAt().isBefore(twoMinutesAgo))) {
-                    
-                    logger.info("Payment {} is {} in YooKassa, updating donation status to FAILED", 
-                        donation.getPaymentId(), status);
-                    donation.setStatus(DonationStatus.FAILED);
-                    donationRepository.save(donation);
+        LocalDateTime now = LocalDateTime.now();
+        overdueBacklog.set(donationRepository.countByStatusAndNextCheckAtBefore(DonationStatus.PENDING, now.minus(CHECK_INTERVALS[0])));
+
+        AtomicBoolean gatewayUnavailable = new AtomicBoolean();
+        long afterId = 0;
+        int checked = 0;
+        int failed = 0;
+
+        while (!gatewayUnavailable.get()) {
+            List<PendingPaymentCheck> chunk = donationRepository.findDuePaymentChecks(
+                    DonationStatus.PENDING, now, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).donationId();
+
+            List<CompletableFuture<CheckResult>> checks = chunk.stream()
+                    .map(pending -> CompletableFuture.supplyAsync(() -> checkPayment(pending, now, gatewayUnavailable), executor))
+                    .toList();
+
+            List<Long> toFail = new ArrayList<>();
+            Map<Integer, List<Long>> toRescheduleByAttempt = new HashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                PendingPaymentCheck pending = chunk.get(i);
+                switch (checks.get(i).join()) {
+                    case FAIL -> toFail.add(pending.donationId());
+                    case RESCHEDULE -> toRescheduleByAttempt
+                            .computeIfAbsent(pending.statusCheckAttempts(), attempt -> new ArrayList<>())
+                            .add(pending.donationId());
+                    case SKIPPED -> { }
                 }
-            } catch (Exception e) {
-                logger.error("Error checking payment status for donation {}: {}", 
-                    donation.getId(), e.getMessage(), e);
             }
+
+            if (!toFail.isEmpty()) {
+                failed += donationRepository.updateStatusIfCurrent(toFail, DonationStatus.PENDING, DonationStatus.FAILED);
+            }
+            toRescheduleByAttempt.forEach((attempt, ids) ->
+                    donationRepository.rescheduleStatusCheck(ids, DonationStatus.PENDING, now.plus(nextInterval(attempt))));
+            checked += chunk.size();
+        }
+
+        if (gatewayUnavailable.get()) {
+            logger.warn("YooKassa is unavailable, postponing remaining status checks");
+        }
+        if (checked > 0) {
+            logger.info("Checked {} pending donations, marked {} as FAILED", checked, failed);
         }
     }
-} 
\ No newline at end of file
+
+    private CheckResult checkPayment(PendingPaymentCheck pending, LocalDateTime now, AtomicBoolean gatewayUnavailable) {
+        if (gatewayUnavailable.get()) {
+            return CheckResult.SKIPPED;
+        }
+        try {
+            String status = RateLimiter.decorateSupplier(rateLimiter,
+                    () -> paymentService.getPaymentStatus(pending.paymentId())).get().getStatus();
+
+            if ("canceled".equals(status) || "expired".equals(status)) {
+                logger.info("Payment {} is {} in YooKassa, updating donation status to FAILED", pending.paymentId(), status);
+                return CheckResult.FAIL;
+            }
+            // Пользователь так и не оплатил: после abandon-after считаем платеж брошенным
+            if (("pending".equals(status) || "waiting_for_capture".equals(status))
+                    && pending.createdAt().isBefore(now.minus(abandonAfter))) {
+                logger.info("Payment {} is still {} after {}, updating donation status to FAILED", pending.paymentId(), status, abandonAfter);
+                return CheckResult.FAIL;
+            }
+        } catch (PaymentGatewayUnavailableException | RequestNotPermitted e) {
+            gatewayUnavailable.set(true);
+            return CheckResult.SKIPPED;
+        } catch (Exception e) {
+            logger.error("Error checking payment status for donation {}: {}", pending.donationId(), e.getMessage(), e);
+        }
+        return CheckResult.RESCHEDULE;
+    }
+
+    private static Duration nextInterval(int attempts) {
+        return CHECK_INTERVALS[Math.min(attempts, CHECK_INTERVALS.length - 1)];
+    }
+
+    private enum CheckResult {
+        FAIL,
+        RESCHEDULE,
+        SKIPPED
+    }
+}
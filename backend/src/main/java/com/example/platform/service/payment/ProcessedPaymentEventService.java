@@ -0,0 +1,67 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.repository.ProcessedPaymentEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Идемпотентность обработки уведомлений ЮKassa.
+ * Источник истины — таблица processed_payment_events, перед ней небольшой LRU-кэш
+ * недавних ключей, чтобы повторные доставки отсекались без запроса в БД.
+ */
+@Service
+public class ProcessedPaymentEventService {
+
+    private final ProcessedPaymentEventRepository processedEventRepository;
+    private final Set<String> recentKeys;
+
+    public ProcessedPaymentEventService(ProcessedPaymentEventRepository processedEventRepository,
+                                        @Value("${payments.idempotency.cache-size:10000}") int cacheSize) {
+        this.processedEventRepository = processedEventRepository;
+        this.recentKeys = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        }));
+    }
+
+    public boolean isKnownDuplicate(String event, String paymentId) {
+        return recentKeys.contains(key(event, paymentId));
+    }
+
+    /**
+     * Записывает ключ в текущей транзакции. Возвращает false, если событие уже обработано.
+     * Откат транзакции откатывает и ключ, поэтому повтор уведомления снова будет обработан.
+     */
+    public boolean tryRecord(String event, String paymentId) {
+        String key = key(event, paymentId);
+        if (processedEventRepository.insertIfAbsent(event, paymentId) == 0) {
+            recentKeys.add(key);
+            return false;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentKeys.add(key);
+                }
+            });
+        } else {
+            recentKeys.add(key);
+        }
+        return true;
+    }
+
+    private String key(String event, String paymentId) {
+        return event + ':' + paymentId;
+    }
+}
@@ -2,38 +2,74 @@ package com.example.platform.service.report;
 
 import com.example.platform.dto.report.FundReportRequest;
 import com.example.platform.dto.report.FundReportResponse;
+import com.example.platform.dto.report.ReportPhotoMetadata;
 import com.example.platform.dto.report.ReportPhotoResponse;
 import com.example.platform.mapper.FundReportMapper;
 import com.example.platform.model.Enum.FundStatus;
 import com.example.platform.model.Fund;
 import com.example.platform.model.FundReport;
 import com.example.platform.model.ReportPhoto;
+import com.example.platform.model.UploadSession;
 import com.example.platform.model.User;
 import com.example.platform.repository.FundReportRepository;
 import com.example.platform.repository.FundRepository;
+import com.example.platform.repository.ReportPhotoRepository;
+import com.example.platform.service.upload.UploadService;
 import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class FundReportService {
 
+    // Чтение фото из БД во временный файл; запросы JdbcTemplate получают этот таймаут от транзакции
+    private static final int PHOTO_READ_TIMEOUT_SECONDS = 30;
+
     private final FundReportRepository fundReportRepository;
     private final FundRepository fundRepository;
     private final FundReportMapper fundReportMapper;
+    private final ReportPhotoRepository reportPhotoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate photoReadTransaction;
+    private final UploadService uploadService;
 
     public FundReportService(FundReportRepository fundReportRepository,
                            FundRepository fundRepository,
-                           FundReportMapper fundReportMapper) {
+                           FundReportMapper fundReportMapper,
+                           ReportPhotoRepository reportPhotoRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           UploadService uploadService) {
         this.fundReportRepository = fundReportRepository;
         this.fundRepository = fundRepository;
         this.fundReportMapper = fundReportMapper;
+        this.reportPhotoRepository = reportPhotoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.photoReadTransaction = new TransactionTemplate(transactionManager);
+        this.photoReadTransaction.setReadOnly(true);
+        this.photoReadTransaction.setTimeout(PHOTO_READ_TIMEOUT_SECONDS);
+        this.uploadService = uploadService;
     }
 
     @Transactional
@@ -53,8 +89,8 @@ public class FundReportService {
         FundReport report = fundReportMapper.toEntity(request);
         report.setFund(fund);
 
+        List<ReportPhoto> reportPhotos = new ArrayList<>();
         if (photos != null && !photos.isEmpty()) {
-            List<ReportPhoto> reportPhotos = new ArrayList<>();
             for (MultipartFile photo : photos) {
                 ReportPhoto reportPhoto = new ReportPhoto();
                 reportPhoto.setFileName(photo.getOriginalFilename());
@@ -63,10 +99,29 @@ public class FundReportService {
                 reportPhoto.setReport(report);
                 reportPhotos.add(reportPhoto);
             }
+        }
+
+        // Содержимое загрузок не проходит через heap: строка фото сохраняется пустой и дописывается потоком
+        Map<ReportPhoto, UploadSession> uploaded = new LinkedHashMap<>();
+        if (request.getPhotoUploadIds() != null) {
+            for (String uploadId : request.getPhotoUploadIds()) {
+                UploadSession upload = uploadService.consume(uploadId, currentUser);
+                ReportPhoto reportPhoto = new ReportPhoto();
+                reportPhoto.setFileName(upload.getFileName());
+                reportPhoto.setFileType(upload.getFileType());
+                reportPhoto.setReport(report);
+                reportPhotos.add(reportPhoto);
+                uploaded.put(reportPhoto, upload);
+            }
+        }
+        if (!reportPhotos.isEmpty()) {
             report.setPhotos(reportPhotos);
         }
 
-        return fundReportMapper.toResponse(fundReportRepository.save(report));
+        FundReport saved = fundReportRepository.saveAndFlush(report);
+        uploaded.forEach((photo, upload) ->
+                uploadService.copyToReportPhoto(upload, photo.getId()));
+        return fundReportMapper.toResponse(saved);
     }
 
     @Transactional
@@ -83,27 +138,60 @@ public class FundReportService {
                 .orElseThrow(() -> new RuntimeException("Report not found"));
     }
 
-    @Transactional
+    // Только описания фото: содержимое (@Lob) не читается
     public List<ReportPhotoResponse> getReportPhotos(Long fundId, Long reportId) {
-        FundReport report = fundReportRepository.findByFundIdAndId(fundId, reportId)
-                .orElseThrow(() -> new RuntimeException("Report not found"));
-        
-        return report.getPhotos().stream()
+        List<ReportPhotoMetadata> photos = reportPhotoRepository.findMetadataByReport(fundId, reportId);
+        if (photos.isEmpty() && !fundReportRepository.existsByFundIdAndId(fundId, reportId)) {
+            throw new RuntimeException("Report not found");
+        }
+        return photos.stream()
                 .map(fundReportMapper::toPhotoResponse)
                 .toList();
     }
 
-    @Transactional
-    public ReportPhoto getReportPhoto(Long fundId, Long reportId, Long photoId) {
-        FundReport report = fundReportRepository.findByFundIdAndId(fundId, reportId)
-                .orElseThrow(() -> new RuntimeException("Report not found"));
-
-        return report.getPhotos().stream()
-                .filter(photo -> photo.getId().equals(photoId))
-                .findFirst()
+    public ReportPhotoMetadata getReportPhoto(Long fundId, Long reportId, Long photoId) {
+        return reportPhotoRepository.findMetadata(fundId, reportId, photoId)
                 .orElseThrow(() -> new RuntimeException("Photo not found"));
     }
 
+    /**
+     * Копирует содержимое фото в поток ответа, не собирая его в byte[]. Hibernate хранит @Lob byte[]
+     * в PostgreSQL как large object (oid), который читается только внутри транзакции. Чтобы медленный клиент
+     * не держал соединение из пула, large object сначала копируется во временный файл, и клиенту отдается
+     * уже файл после коммита; само чтение из БД ограничено таймаутом транзакции.
+     */
+    public void writeReportPhotoData(Long photoId, OutputStream out) throws IOException {
+        Path spool = Files.createTempFile("report-photo-", ".tmp");
+        try {
+            photoReadTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                    "SELECT data FROM report_photos WHERE id = ?",
+                    rs -> {
+                        try (InputStream data = openBinaryStream(rs)) {
+                            if (data != null) {
+                                Files.copy(data, spool, StandardCopyOption.REPLACE_EXISTING);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    },
+                    photoId));
+            Files.copy(spool, out);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    // oid читается через Blob по частям; bytea драйвер все равно отдает целиком
+    private static InputStream openBinaryStream(ResultSet rs) throws SQLException {
+        return switch (rs.getMetaData().getColumnType(1)) {
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> rs.getBinaryStream(1);
+            default -> {
+                Blob blob = rs.getBlob(1);
+                yield blob != null ? blob.getBinaryStream() : null;
+            }
+        };
+    }
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
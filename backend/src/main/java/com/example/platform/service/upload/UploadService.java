@@ -0,0 +1,335 @@
+package com.example.platform.service.upload;
+
+import com.example.platform.dto.upload.CreateUploadRequest;
+import com.example.platform.dto.upload.UploadSessionResponse;
+import com.example.platform.dto.upload.UploadUsage;
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.exception.TooManyRequestsException;
+import com.example.platform.model.Enum.UploadStatus;
+import com.example.platform.model.UploadSession;
+import com.example.platform.model.User;
+import com.example.platform.repository.UploadSessionRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Возобновляемая загрузка файлов: сессия создается с размером и SHA-256, фрагменты дописываются
+ * по смещениям во временный файл, завершение сверяет хеш. Фрагмент копируется из запроса буфером
+ * фиксированного размера, поэтому память не зависит от размера файла; число одновременно пишущихся
+ * фрагментов ограничено, лишние получают 429.
+ * Временные файлы лежат на диске узла: при нескольких экземплярах нужен общий каталог или sticky-сессии.
+ */
+@Service
+public class UploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final long maxFileSize;
+    private final long maxChunkSize;
+    private final Duration ttl;
+    private final int maxSessionsPerUser;
+    private final long maxReservedBytesPerUser;
+    private final Semaphore chunkPermits;
+
+    // Сессии, фрагмент которых пишется прямо сейчас
+    private final Set<String> activeChunks = ConcurrentHashMap.newKeySet();
+
+    public UploadService(UploadSessionRepository uploadSessionRepository,
+                         JdbcTemplate jdbcTemplate,
+                         @Value("${uploads.temp-dir:${java.io.tmpdir}/charity-uploads}") String directory,
+                         @Value("${uploads.max-file-size:100MB}") DataSize maxFileSize,
+                         @Value("${uploads.max-chunk-size:8MB}") DataSize maxChunkSize,
+                         @Value("${uploads.ttl:24h}") Duration ttl,
+                         @Value("${uploads.max-concurrent-chunks:16}") int maxConcurrentChunks,
+                         @Value("${uploads.max-sessions-per-user:20}") int maxSessionsPerUser,
+                         @Value("${uploads.max-reserved-per-user:500MB}") DataSize maxReservedPerUser) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = Path.of(directory);
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxChunkSize = maxChunkSize.toBytes();
+        this.ttl = ttl;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.maxReservedBytesPerUser = maxReservedPerUser.toBytes();
+        this.chunkPermits = new Semaphore(maxConcurrentChunks);
+    }
+
+    /**
+     * Создает сессию в пределах квоты владельца: число живых сессий и сумма их заявленных размеров
+     * ограничены, иначе один пользователь может занять весь временный каталог.
+     * Проверка и вставка сериализованы на этом узле; создание сессии короткое и редкое.
+     */
+    public synchronized UploadSessionResponse create(CreateUploadRequest request, User owner) {
+        if (!request.fileType().startsWith("image/")) {
+            throw new IllegalStateException("Only images can be uploaded");
+        }
+        if (request.size() > maxFileSize) {
+            throw new IllegalStateException("File is larger than " + maxFileSize + " bytes");
+        }
+        UploadUsage usage = uploadSessionRepository.findUsage(owner.getId(), LocalDateTime.now());
+        if (usage.sessions() >= maxSessionsPerUser) {
+            throw new IllegalStateException("Too many unfinished uploads, complete or delete some first");
+        }
+        if (usage.reservedBytes() + request.size() > maxReservedBytesPerUser) {
+            throw new IllegalStateException("Upload quota of " + maxReservedBytesPerUser + " bytes exceeded");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOwnerId(owner.getId());
+        session.setFileName(request.fileName());
+        session.setFileType(request.fileType());
+        session.setSize(request.size());
+        session.setSha256(request.sha256().toLowerCase(Locale.ROOT));
+        session.setExpiresAt(LocalDateTime.now().plus(ttl));
+        return toResponse(uploadSessionRepository.save(session));
+    }
+
+    public UploadSessionResponse get(String uploadId, User owner) {
+        return toResponse(find(uploadId, owner));
+    }
+
+    /**
+     * Дописывает фрагмент, начинающийся с {@code offset}. Смещение должно совпадать с уже принятым объемом:
+     * после обрыва клиент узнает его через {@link #get} и продолжает с этого места.
+     *
+     * @return загрузка с новым смещением
+     */
+    public UploadSessionResponse appendChunk(String uploadId, User owner, long offset, InputStream body) throws IOException {
+        UploadSession session = findOpen(uploadId, owner);
+        if (offset != session.getReceivedBytes()) {
+            throw new GlobalExceptionHandler.ConflictException("Expected offset " + session.getReceivedBytes());
+        }
+        if (!chunkPermits.tryAcquire()) {
+            throw new TooManyRequestsException("Too many uploads in progress", 1);
+        }
+        try {
+            if (!activeChunks.add(uploadId)) {
+                throw new GlobalExceptionHandler.ConflictException("Another chunk of this upload is in progress");
+            }
+            try {
+                long received = offset + write(session, offset, body);
+                if (uploadSessionRepository.advance(uploadId, offset, received) == 0) {
+                    throw new GlobalExceptionHandler.ConflictException("Upload was changed concurrently");
+                }
+                session.setReceivedBytes(received);
+                return toResponse(session);
+            } finally {
+                activeChunks.remove(uploadId);
+            }
+        } finally {
+            chunkPermits.release();
+        }
+    }
+
+    /**
+     * Завершает загрузку: все байты получены и SHA-256 файла совпадает с заявленным.
+     * При несовпадении загрузка начинается заново с нулевого смещения.
+     */
+    @Transactional(dontRollbackOn = IllegalStateException.class)
+    public UploadSessionResponse complete(String uploadId, User owner) throws IOException {
+        UploadSession session = find(uploadId, owner);
+        if (session.getStatus() == UploadStatus.COMPLETED) {
+            return toResponse(session);
+        }
+        session = findOpen(uploadId, owner);
+        if (session.getReceivedBytes() != session.getSize()) {
+            throw new IllegalStateException("Upload is incomplete: " + session.getReceivedBytes()
+                    + " of " + session.getSize() + " bytes received");
+        }
+
+        String actual = sha256(path(uploadId));
+        if (!actual.equals(session.getSha256())) {
+            session.setReceivedBytes(0);
+            Files.deleteIfExists(path(uploadId));
+            logger.warn("Upload {} failed checksum verification, restarting", uploadId);
+            throw new IllegalStateException("SHA-256 mismatch, upload must be restarted");
+        }
+        session.setStatus(UploadStatus.COMPLETED);
+        return toResponse(session);
+    }
+
+    public void abort(String uploadId, User owner) throws IOException {
+        find(uploadId, owner);
+        uploadSessionRepository.deleteByIds(List.of(uploadId));
+        Files.deleteIfExists(path(uploadId));
+    }
+
+    /**
+     * Забирает завершенную загрузку в текущей транзакции. Временный файл удаляется после коммита,
+     * при откате загрузку можно использовать снова.
+     */
+    public UploadSession consume(String uploadId, User owner) {
+        UploadSession session = find(uploadId, owner);
+        if (uploadSessionRepository.updateStatusIfCurrent(uploadId, UploadStatus.COMPLETED, UploadStatus.CONSUMED) == 0) {
+            throw new IllegalStateException("Upload " + uploadId + " is not completed or already used");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteFile(uploadId);
+                }
+            });
+        }
+        return session;
+    }
+
+    // Картинка фонда: вызывать после flush, иначе Hibernate при коммите перезапишет image_data значением из сущности
+    public void copyToFundImage(UploadSession session, Long fundId) {
+        copyToLob(session, "UPDATE fund SET image_data = ? WHERE id = ?", fundId);
+    }
+
+    // Фото отчета: строка report_photos уже должна быть сохранена
+    public void copyToReportPhoto(UploadSession session, Long photoId) {
+        copyToLob(session, "UPDATE report_photos SET data = ? WHERE id = ?", photoId);
+    }
+
+    /**
+     * Копирует содержимое загрузки в столбец @Lob потоком; PostgreSQL пишет large object частями, не собирая byte[].
+     */
+    private void copyToLob(UploadSession session, String updateSql, Long entityId) {
+        try (InputStream data = Files.newInputStream(path(session.getId()))) {
+            int updated = jdbcTemplate.update(updateSql, ps -> {
+                ps.setBlob(1, data, session.getSize());
+                ps.setLong(2, entityId);
+            });
+            if (updated == 0) {
+                throw new IllegalStateException("Row " + entityId + " for upload " + session.getId() + " not found");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read upload " + session.getId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        List<String> ids = uploadSessionRepository.findExpiredOrConsumedIds(LocalDateTime.now());
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(this::deleteFile);
+        uploadSessionRepository.deleteByIds(ids);
+        logger.info("Deleted {} expired or used uploads", ids.size());
+    }
+
+    private long write(UploadSession session, long offset, InputStream body) throws IOException {
+        Files.createDirectories(directory);
+        long limit = Math.min(maxChunkSize, session.getSize() - offset);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(path(session.getId()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Хвост оборванного фрагмента, который не попал в received_bytes
+            channel.truncate(offset);
+            channel.position(offset);
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > limit) {
+                    throw new IllegalStateException("Chunk exceeds " + limit + " bytes");
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                written += read;
+            }
+            // Смещение сохраняем только для данных, которые уже на диске
+            channel.force(false);
+        }
+        return written;
+    }
+
+    private UploadSession find(String uploadId, User owner) {
+        UploadSession session = uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new GlobalExceptionHandler.ResourceNotFoundException("Upload not found"));
+        if (!session.getOwnerId().equals(owner.getId())) {
+            throw new AccessDeniedException("Upload belongs to another user");
+        }
+        return session;
+    }
+
+    private UploadSession findOpen(String uploadId, User owner) {
+        UploadSession session = find(uploadId, owner);
+        if (session.getStatus() != UploadStatus.OPEN) {
+            throw new IllegalStateException("Upload is already " + session.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        if (!session.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new IllegalStateException("Upload has expired");
+        }
+        return session;
+    }
+
+    private Path path(String uploadId) {
+        return directory.resolve(uploadId);
+    }
+
+    private void deleteFile(String uploadId) {
+        try {
+            Files.deleteIfExists(path(uploadId));
+        } catch (IOException e) {
+            logger.warn("Failed to delete upload file {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static UploadSessionResponse toResponse(UploadSession session) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getFileName(),
+                session.getFileType(),
+                session.getSize(),
+                session.getReceivedBytes(),
+                session.getStatus(),
+                session.getExpiresAt());
+    }
+}
@@ -1,31 +1,163 @@
 package com.example.platform.service.user;
 
 import com.example.platform.CustomUserDetails;
+import com.example.platform.model.Enum.Role;
 import com.example.platform.model.User;
 import com.example.platform.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Загрузка пользователя по логину с LRU-кэшем на короткое время. Неизвестные логины тоже кэшируются,
+ * чтобы перебор имен не превращался в запросы к БД. Изменения пользователя вызывают {@link #evict}.
+ */
 @Component
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    private final Map<String, Entry> cache;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    // Растет при каждой инвалидации: загрузка, начатая до нее, не кладет в кэш старые данные
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${security.user-cache.size:10000}") int cacheSize,
+                                    @Value("${security.user-cache.ttl:60s}") Duration ttl,
+                                    @Value("${security.user-cache.negative-ttl:30s}") Duration negativeTtl) {
         this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        // Доля попаданий: hit / (hit + negative_hit + miss)
+        this.hits = Counter.builder("security.user_details.cache").tag("result", "hit").register(meterRegistry);
+        this.negativeHits = Counter.builder("security.user_details.cache").tag("result", "negative_hit").register(meterRegistry);
+        this.misses = Counter.builder("security.user_details.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("security.user_details.cache.size", cache, Map::size).register(meterRegistry);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        Entry entry = cache.get(username);
+        if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+            if (entry.user() == null) {
+                negativeHits.increment();
+                throw new UsernameNotFoundException("User not found");
+            }
+            hits.increment();
+            return new CustomUserDetails(entry.user().toUser());
+        }
+
+        misses.increment();
+        long generation = invalidations.get();
         User user = userRepository.findByUsername(username);
-        if(Objects.isNull(user)) {
+        CachedUser cached = user != null ? CachedUser.of(user) : null;
+        long expiresAt = System.nanoTime() + (cached != null ? ttlNanos : negativeTtlNanos);
+        synchronized (cache) {
+            if (invalidations.get() == generation) {
+                cache.put(username, new Entry(cached, expiresAt));
+            }
+        }
+
+        if (Objects.isNull(user)) {
             throw new UsernameNotFoundException("User not found");
-        } else {
-            return new CustomUserDetails(user);
+        }
+        return new CustomUserDetails(user);
+    }
+
+    // Вызывается провайдером аутентификации, когда хеш пароля пересчитан с новой стоимостью
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.updatePassword(userDetails.getUsername(), newPassword);
+        evict(userDetails.getUsername());
+        User user = ((CustomUserDetails) userDetails).getUser();
+        user.setPassword(newPassword);
+        return new CustomUserDetails(user);
+    }
+
+    /**
+     * Сбрасывает запись сразу и еще раз после коммита текущей транзакции,
+     * чтобы параллельная загрузка не вернула в кэш данные до изменения.
+     */
+    public void evict(String username) {
+        evictNowAndAfterCommit(() -> {
+            synchronized (cache) {
+                invalidations.incrementAndGet();
+                cache.remove(username);
+            }
+        });
+    }
+
+    public void evict(Long userId) {
+        evictNowAndAfterCommit(() -> {
+            synchronized (cache) {
+                invalidations.incrementAndGet();
+                cache.values().removeIf(entry -> entry.user() != null && userId.equals(entry.user().id()));
+            }
+        });
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    // null в user — логин не найден
+    private record Entry(CachedUser user, long expiresAt) {
+    }
+
+    // Неизменяемый снимок: каждый запрос получает свой экземпляр User
+    private record CachedUser(Long id, String username, String password, String displayName, Role role, boolean enabled) {
+
+        static CachedUser of(User user) {
+            return new CachedUser(user.getId(), user.getUsername(), user.getPassword(), user.getDisplayName(),
+                    user.getRole(), user.isEnabled());
+        }
+
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setPassword(password);
+            user.setDisplayName(displayName);
+            user.setRole(role);
+            user.setEnabled(enabled);
+            return user;
         }
     }
 }
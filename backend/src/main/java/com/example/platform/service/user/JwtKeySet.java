@@ -0,0 +1,126 @@
+package com.example.platform.service.user;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ключи подписи JWT. Каталог набора содержит {@code <kid>.pub} (X.509 PEM) для каждого ключа проверки,
+ * {@code <kid>.key} (PKCS#8 PEM) для активного ключа и файл {@code active} с его kid.
+ * Поддерживаются Ed25519 (EdDSA) и EC P-256 (ES256); алгоритм подписи jjwt выбирает по типу ключа.
+ * Токены без kid проверяются прежним HMAC-ключом, если он задан.
+ */
+public final class JwtKeySet {
+
+    private static final String[] KEY_ALGORITHMS = {"Ed25519", "EC"};
+
+    private final String signingKeyId;
+    private final Key signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+    private final SecretKey legacyKey;
+
+    private JwtKeySet(String signingKeyId, Key signingKey, Map<String, PublicKey> verificationKeys, SecretKey legacyKey) {
+        this.signingKeyId = signingKeyId;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+        this.legacyKey = legacyKey;
+    }
+
+    // Прежний режим: подпись и проверка общим секретом, без kid
+    public static JwtKeySet hmac(String base64SecretKey) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64SecretKey));
+        return new JwtKeySet(null, key, Map.of(), key);
+    }
+
+    /**
+     * Читает набор из каталога.
+     *
+     * @throws IllegalStateException если нет активного ключа, его пары или файл ключа не разбирается
+     */
+    public static JwtKeySet load(Path directory, SecretKey legacyKey) throws IOException {
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.pub")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                publicKeys.put(name.substring(0, name.length() - ".pub".length()), readPublicKey(file));
+            }
+        }
+
+        String activeKeyId = Files.readString(directory.resolve("active"), StandardCharsets.UTF_8).trim();
+        if (!publicKeys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Public key for active kid " + activeKeyId + " not found in " + directory);
+        }
+        PrivateKey signingKey = readPrivateKey(directory.resolve(activeKeyId + ".key"));
+        if (!signingKey.getAlgorithm().equals(publicKeys.get(activeKeyId).getAlgorithm())) {
+            throw new IllegalStateException("Key pair " + activeKeyId + " has mismatched algorithms");
+        }
+        return new JwtKeySet(activeKeyId, signingKey, publicKeys, legacyKey);
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    public int size() {
+        return verificationKeys.size();
+    }
+
+    // Ключ проверки по kid из заголовка; null, если такого ключа нет
+    public Key verificationKey(String keyId) {
+        return keyId != null ? verificationKeys.get(keyId) : legacyKey;
+    }
+
+    private static PublicKey readPublicKey(Path file) throws IOException {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(readPem(file));
+        for (String algorithm : KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(spec);
+            } catch (GeneralSecurityException e) {
+                // пробуем следующий алгоритм
+            }
+        }
+        throw new IllegalStateException("Unsupported public key " + file);
+    }
+
+    private static PrivateKey readPrivateKey(Path file) throws IOException {
+        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(readPem(file));
+        for (String algorithm : KEY_ALGORITHMS) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePrivate(spec);
+            } catch (GeneralSecurityException e) {
+                // пробуем следующий алгоритм
+            }
+        }
+        throw new IllegalStateException("Unsupported private key " + file);
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        StringBuilder base64 = new StringBuilder();
+        for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+            if (!line.startsWith("-----")) {
+                base64.append(line.trim());
+            }
+        }
+        return Base64.getDecoder().decode(base64.toString());
+    }
+}
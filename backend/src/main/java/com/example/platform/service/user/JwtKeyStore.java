@@ -0,0 +1,119 @@
+package com.example.platform.service.user;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Текущий набор ключей JWT. Каталог из security.jwt.keyset-dir читается при старте и перечитывается,
+ * когда в нем меняются файлы: новый ключ сначала раскладывается как .pub на все узлы, потом становится active,
+ * а старый .pub удаляется не раньше, чем истекут подписанные им токены.
+ * Без каталога работает прежняя подпись HMAC-секретом JWT_SECRET_KEY из .env.
+ */
+@Component
+public class JwtKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyStore.class);
+
+    private final Path directory;
+    private final SecretKey legacyKey;
+
+    private volatile JwtKeySet keySet;
+    private long loadedStamp;
+
+    @Autowired
+    public JwtKeyStore(@Value("${security.jwt.keyset-dir:}") String keySetDir,
+                       @Value("${security.jwt.accept-legacy-hmac:true}") boolean acceptLegacyHmac) {
+        String secret = Dotenv.configure().ignoreIfMissing().load().get("JWT_SECRET_KEY");
+        if (keySetDir.isBlank()) {
+            if (secret == null || secret.isBlank()) {
+                throw new IllegalStateException("Neither security.jwt.keyset-dir nor JWT_SECRET_KEY is configured");
+            }
+            this.directory = null;
+            this.legacyKey = null;
+            this.keySet = JwtKeySet.hmac(secret);
+            logger.warn("JWT keyset directory is not configured, signing with the shared HMAC secret");
+            return;
+        }
+
+        this.directory = Path.of(keySetDir);
+        // Токены, выпущенные до перехода на асимметричные ключи, принимаются до истечения срока
+        this.legacyKey = acceptLegacyHmac && secret != null && !secret.isBlank()
+                ? Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))
+                : null;
+        try {
+            this.loadedStamp = stamp();
+            this.keySet = JwtKeySet.load(directory, legacyKey);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load JWT keyset from " + directory, e);
+        }
+        logger.info("Loaded JWT keyset from {}: active kid {}, {} verification keys",
+                directory, keySet.getSigningKeyId(), keySet.size());
+    }
+
+    private JwtKeyStore(JwtKeySet keySet) {
+        this.directory = null;
+        this.legacyKey = null;
+        this.keySet = keySet;
+    }
+
+    // Неизменяемый набор, например для бенчмарков и тестов
+    public static JwtKeyStore fixed(JwtKeySet keySet) {
+        return new JwtKeyStore(keySet);
+    }
+
+    public JwtKeySet current() {
+        return keySet;
+    }
+
+    /**
+     * Перечитывает каталог, если в нем что-то изменилось. Ошибка чтения (например, файл еще копируется)
+     * оставляет прежний набор до следующей проверки.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.keyset-reload-interval-ms:30000}",
+            initialDelayString = "${security.jwt.keyset-reload-interval-ms:30000}")
+    public synchronized void reload() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            long stamp = stamp();
+            if (stamp == loadedStamp) {
+                return;
+            }
+            JwtKeySet next = JwtKeySet.load(directory, legacyKey);
+            String previousKeyId = keySet.getSigningKeyId();
+            keySet = next;
+            loadedStamp = stamp;
+            logger.info("Reloaded JWT keyset: active kid {} (was {}), {} verification keys",
+                    next.getSigningKeyId(), previousKeyId, next.size());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to reload JWT keyset from {}, keeping kid {}: {}",
+                    directory, keySet.getSigningKeyId(), e.getMessage());
+        }
+    }
+
+    // Меняется при добавлении, удалении и изменении любого файла каталога
+    private long stamp() throws IOException {
+        long stamp = 17;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                stamp += file.getFileName().hashCode() * 31L + Files.getLastModifiedTime(file).toMillis();
+            }
+        }
+        return stamp;
+    }
+}
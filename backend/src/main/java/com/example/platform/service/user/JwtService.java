@@ -1,91 +1,153 @@
 package com.example.platform.service.user;
 
+import com.example.platform.model.Enum.Role;
 import com.example.platform.model.User;
-import io.github.cdimascio.dotenv.Dotenv;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
-    private String secretKey = null;
-
     final int HOUR_IN_MS = 60 * 60 * 1000;
 
+    private final JwtKeyStore keyStore;
+    // Парсер создается один раз (JwtParser потокобезопасен), ключ проверки выбирается по kid из текущего набора
+    private final JwtParser parser;
+
+    @Autowired
+    public JwtService(JwtKeyStore keyStore) {
+        this.keyStore = keyStore;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyStore.current().verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    public JwtService(String base64SecretKey) {
+        this(JwtKeyStore.fixed(JwtKeySet.hmac(requireSecret(base64SecretKey))));
+    }
+
+    private static String requireSecret(String base64SecretKey) {
+        if (base64SecretKey == null || base64SecretKey.isBlank()) {
+            throw new IllegalStateException("JWT_SECRET_KEY is not configured");
+        }
+        return base64SecretKey;
+    }
+
     public String generateToken(User user) {
+        return generateToken(user, null);
+    }
 
+    // sid — сессия refresh-токена: по нему logout закрывает и ее
+    public String generateToken(User user, String sessionId) {
+
+        long now = System.currentTimeMillis();
         Map<String , Object> claims = new HashMap<>();
+        claims.put("uid", user.getId());
+        // iat в JWT хранится в секундах; для сравнения с отсечкой отзыва нужен момент выпуска в мс
+        claims.put("iatMs", now);
+        if (sessionId != null) {
+            claims.put("sid", sessionId);
+        }
         claims.put("role",user.getRole());
         claims.put("displayName", user.getDisplayName());
 
-        return Jwts
-                .builder()
+        JwtKeySet keys = keyStore.current();
+        JwtBuilder builder = Jwts.builder();
+        if (keys.getSigningKeyId() != null) {
+            builder.header().keyId(keys.getSigningKeyId());
+        }
+        return builder
                 .claims().add(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(user.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + HOUR_IN_MS))
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + HOUR_IN_MS))
                 .and()
-                .signWith(generateKey())
+                // EdDSA для Ed25519, ES256 для P-256, HS* для прежнего секрета
+                .signWith(keys.getSigningKey())
                 .compact();
     }
 
-    public SecretKey generateKey() {
-
-        byte[] decode = Decoders.BASE64.decode(getSecretKey());
+    public Duration getTokenLifetime() {
+        return Duration.ofMillis(HOUR_IN_MS);
+    }
 
-        return Keys.hmacShaKeyFor(decode);
+    /**
+     * Проверяет подпись и срок действия и возвращает все claims за один разбор токена.
+     *
+     * @throws JwtException если токен поврежден, подписан другим ключом или истек
+     */
+    public Claims parseToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
 
+    /**
+     * Собирает принципала из claims без обращения к БД. Это отсоединенный User только с id, логином, ролью
+     * и именем: его можно передавать как ссылку в сущности, а полные данные загружать по id.
+     * Для токенов, выпущенных без uid, возвращает null.
+     */
+    public User toPrincipal(Claims claims) {
+        Long userId = claims.get("uid", Long.class);
+        String role = claims.get("role", String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(claims.getSubject());
+        user.setRole(Role.valueOf(role));
+        user.setDisplayName(claims.get("displayName", String.class));
+        return user;
     }
 
-    public String getSecretKey() {
-        Dotenv dotenv = Dotenv.load();
-        return dotenv.get("JWT_SECRET_KEY");
+    // Момент выпуска в мс; у токенов без iatMs — iat с точностью до секунды
+    public static Long issuedAtMillis(Claims claims) {
+        Long issuedAtMs = claims.get("iatMs", Long.class);
+        if (issuedAtMs != null) {
+            return issuedAtMs;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : null;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getSubject();
     }
 
     public String extractDisplayName(String token) {
-        return extractClaim(token, claims -> claims.get("displayName", String.class));
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        Claims claims = extractClaim(token);
-        return claimResolver.apply(claims);
-
+        return parseToken(token).get("displayName", String.class);
     }
 
-    private Claims extractClaim(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(generateKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Срок действия уже проверен парсером в parseToken
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null && claims.getSubject().equals(userDetails.getUsername());
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUsername(token);
-
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        try {
+            return isTokenValid(parseToken(token), userDetails);
+        } catch (JwtException e) {
+            return false;
+        }
     }
 }
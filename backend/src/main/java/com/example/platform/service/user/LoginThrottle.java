@@ -0,0 +1,124 @@
+package com.example.platform.service.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket на попытки входа по логину и по IP. Состояние разбито на полосы со своими блокировками
+ * и ограниченными LRU-картами: вытесненный ключ просто начинает с полного ведра.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final double usernameCapacity;
+    private final double usernameRefillPerNano;
+    private final double ipCapacity;
+    private final double ipRefillPerNano;
+
+    public LoginThrottle(@Value("${security.login.username-capacity:5}") int usernameCapacity,
+                         @Value("${security.login.username-refill-per-minute:5}") int usernameRefillPerMinute,
+                         @Value("${security.login.ip-capacity:20}") int ipCapacity,
+                         @Value("${security.login.ip-refill-per-minute:20}") int ipRefillPerMinute,
+                         @Value("${security.login.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillPerNano = usernameRefillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerNano = ipRefillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        int perStripe = Math.max(16, maxTrackedKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Забирает по жетону из ведер логина и IP. Возвращает 0, если вход разрешен,
+     * иначе через сколько секунд стоит повторить.
+     */
+    public long tryAcquire(String username, String clientIp) {
+        long now = System.nanoTime();
+        String userKey = "u:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+        long userWait = consume(userKey, usernameCapacity, usernameRefillPerNano, now);
+        if (userWait > 0) {
+            return toSeconds(userWait);
+        }
+        if (clientIp != null) {
+            long ipWait = consume("ip:" + clientIp, ipCapacity, ipRefillPerNano, now);
+            if (ipWait > 0) {
+                refund(userKey, usernameCapacity);
+                return toSeconds(ipWait);
+            }
+        }
+        return 0;
+    }
+
+    private long consume(String key, double capacity, double refillPerNano, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * refillPerNano);
+            bucket.updatedAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / refillPerNano);
+        }
+    }
+
+    private void refund(String key, double capacity) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+            }
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static final class Stripe {
+
+        private final Map<String, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
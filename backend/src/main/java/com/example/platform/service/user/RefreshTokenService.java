@@ -0,0 +1,169 @@
+package com.example.platform.service.user;
+
+import com.example.platform.dto.auth.AuthTokens;
+import com.example.platform.dto.auth.SessionResponse;
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.model.RefreshToken;
+import com.example.platform.model.User;
+import com.example.platform.repository.RefreshTokenRepository;
+import com.example.platform.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Непрозрачные refresh-токены: вход по паролю открывает сессию, дальше access-токен обновляется
+ * обменом refresh-токена без BCrypt. Токен одноразовый — при обмене выдается следующий той же сессии.
+ * Повторное предъявление уже использованного токена означает, что его скопировали: сессия отзывается целиком.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+
+    @Value("${security.refresh.lifetime:30d}")
+    private Duration lifetime;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtService jwtService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+    }
+
+    public Duration getLifetime() {
+        return lifetime;
+    }
+
+    /**
+     * Открывает новую сессию после входа по паролю.
+     */
+    @Transactional
+    public AuthTokens startSession(User user, String userAgent, String clientIp) {
+        String sessionId = UUID.randomUUID().toString();
+        String refreshToken = issue(user.getId(), sessionId, LocalDateTime.now(), userAgent, clientIp);
+        return new AuthTokens(jwtService.generateToken(user, sessionId), refreshToken);
+    }
+
+    /**
+     * Обменивает refresh-токен на новую пару токенов.
+     *
+     * @throws BadCredentialsException если токен неизвестен, истек, уже использован или пользователь отключен
+     */
+    @Transactional(dontRollbackOn = BadCredentialsException.class)
+    public AuthTokens rotate(String refreshToken, String userAgent, String clientIp) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            refreshTokenRepository.revokeSession(current.getSessionId(), now);
+            logger.warn("Refresh token reuse in session {} of user {}, session revoked",
+                    current.getSessionId(), current.getUserId());
+            throw new BadCredentialsException("Refresh token already used");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+
+        User user = userRepository.findById(current.getUserId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new BadCredentialsException("User is disabled"));
+
+        String next = issue(user.getId(), current.getSessionId(), current.getSessionStartedAt(), userAgent, clientIp);
+        return new AuthTokens(jwtService.generateToken(user, current.getSessionId()), next);
+    }
+
+    public List<SessionResponse> getSessions(Long userId, String currentSessionId) {
+        return refreshTokenRepository
+                .findByUserIdAndUsedAtIsNullAndExpiresAtAfterOrderBySessionStartedAtDesc(userId, LocalDateTime.now())
+                .stream()
+                .map(token -> new SessionResponse(
+                        token.getSessionId(),
+                        token.getSessionStartedAt(),
+                        token.getCreatedAt(),
+                        token.getExpiresAt(),
+                        token.getUserAgent(),
+                        token.getIpAddress(),
+                        token.getSessionId().equals(currentSessionId)))
+                .toList();
+    }
+
+    @Transactional
+    public void revokeSession(String sessionId) {
+        refreshTokenRepository.revokeSession(sessionId, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void revokeSession(Long userId, String sessionId) {
+        if (refreshTokenRepository.revokeSession(userId, sessionId, LocalDateTime.now()) == 0) {
+            throw new GlobalExceptionHandler.ResourceNotFoundException("Session not found");
+        }
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${security.refresh.cleanup-cron:0 15 4 * * *}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        logger.info("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private String issue(Long userId, String sessionId, LocalDateTime sessionStartedAt, String userAgent, String clientIp) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(value));
+        token.setUserId(userId);
+        token.setSessionId(sessionId);
+        token.setSessionStartedAt(sessionStartedAt);
+        token.setExpiresAt(LocalDateTime.now().plus(lifetime));
+        token.setUserAgent(truncate(userAgent, 255));
+        token.setIpAddress(truncate(clientIp, 64));
+        refreshTokenRepository.save(token);
+        return value;
+    }
+
+    // 256 случайных бит не подобрать перебором, поэтому медленный хеш не нужен: хватает одного SHA-256
+    static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.platform.service.user;
+
+import com.example.platform.dto.auth.UserTokenCutoff;
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.model.RevokedToken;
+import com.example.platform.repository.RevokedTokenRepository;
+import com.example.platform.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Отзыв JWT: отдельные токены (logout) и все токены пользователя до момента отзыва.
+ * Источник истины — Postgres; на каждом узле держится копия: фильтр Блума перед точным множеством jti
+ * и отсечки по пользователям. Записи живут не дольше срока токена, поэтому память ограничена.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+
+    @Value("${security.revocation.bloom-expected-tokens:100000}")
+    private int expectedTokens;
+
+    // Пересобирается при обновлении и заменяется целиком; локальные отзывы дописываются в текущую копию
+    private volatile Denylist denylist = new Denylist(1024);
+    // Локальные отзывы, сделанные пока refresh читает БД: снимок может их не увидеть, они дописываются в новую копию
+    private List<Consumer<Denylist>> sinceSnapshot;
+    private final Object refreshLock = new Object();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  UserRepository userRepository,
+                                  JwtService jwtService,
+                                  RefreshTokenService refreshTokenService) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    public boolean isRevoked(Claims claims) {
+        Denylist current = denylist;
+        if (!current.cutoffs.isEmpty()) {
+            Long userId = claims.get("uid", Long.class);
+            Long notBefore = userId != null ? current.cutoffs.get(userId) : null;
+            Long issuedAt = notBefore != null ? JwtService.issuedAtMillis(claims) : null;
+            if (issuedAt != null && issuedAt < notBefore) {
+                return true;
+            }
+        }
+        String jti = claims.getId();
+        return jti != null && current.bloom.mightContain(jti) && current.tokens.contains(jti);
+    }
+
+    /**
+     * Отзывает один токен. У токенов, выпущенных до появления jti, отзываются все сессии пользователя.
+     */
+    @Transactional
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            Long userId = claims.get("uid", Long.class);
+            if (userId == null) {
+                throw new IllegalStateException("Token cannot be revoked");
+            }
+            revokeAllForUser(userId);
+            return;
+        }
+
+        RevokedToken token = new RevokedToken();
+        token.setJti(jti);
+        token.setUserId(claims.get("uid", Long.class));
+        token.setExpiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        revokedTokenRepository.save(token);
+
+        applyAfterCommit(list -> list.addToken(jti));
+        logger.info("Revoked token {} of user {}", jti, token.getUserId());
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        // Сравнение с моментом выпуска в мс (claim iatMs): повторный вход в ту же секунду не отсекается
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        if (userRepository.setTokensNotBefore(userId, LocalDateTime.ofInstant(notBefore, ZoneId.systemDefault())) == 0) {
+            throw new GlobalExceptionHandler.ResourceNotFoundException("User not found");
+        }
+        refreshTokenService.revokeAllForUser(userId);
+        long notBeforeMs = notBefore.toEpochMilli();
+        applyAfterCommit(list -> list.cutoffs.merge(userId, notBeforeMs, Math::max));
+        logger.info("Revoked all tokens of user {} issued before {}", userId, notBefore);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-interval-ms:30000}",
+            initialDelayString = "${security.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            synchronized (this) {
+                sinceSnapshot = new ArrayList<>();
+            }
+            try {
+                Denylist next = load();
+                synchronized (this) {
+                    sinceSnapshot.forEach(change -> change.accept(next));
+                    denylist = next;
+                }
+            } finally {
+                synchronized (this) {
+                    sinceSnapshot = null;
+                }
+            }
+        }
+    }
+
+    private Denylist load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        List<RevokedToken> tokens = revokedTokenRepository.findByExpiresAtAfter(now);
+        List<UserTokenCutoff> cutoffs = userRepository.findTokenCutoffsAfter(now.minus(jwtService.getTokenLifetime()));
+
+        Denylist next = new Denylist(Math.max(expectedTokens, 2 * tokens.size()));
+        ZoneId zone = ZoneId.systemDefault();
+        for (RevokedToken token : tokens) {
+            next.addToken(token.getJti());
+        }
+        for (UserTokenCutoff cutoff : cutoffs) {
+            next.cutoffs.put(cutoff.userId(), cutoff.notBefore().atZone(zone).toInstant().toEpochMilli());
+        }
+        logger.debug("Loaded {} revoked tokens and {} user cutoffs", tokens.size(), cutoffs.size());
+        return next;
+    }
+
+    // В память попадает только закоммиченный отзыв, иначе откат транзакции оставил бы его в копии
+    private void applyAfterCommit(Consumer<Denylist> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Consumer<Denylist> change) {
+        change.accept(denylist);
+        if (sinceSnapshot != null) {
+            sinceSnapshot.add(change);
+        }
+    }
+
+    private static final class Denylist {
+
+        private final BloomFilter bloom;
+        private final Set<String> tokens = ConcurrentHashMap.newKeySet();
+        // id пользователя -> токены с iat раньше этого момента (мс) отозваны
+        private final Map<Long, Long> cutoffs = new ConcurrentHashMap<>();
+
+        Denylist(int expectedTokens) {
+            this.bloom = new BloomFilter(expectedTokens, BLOOM_FALSE_POSITIVE_RATE);
+        }
+
+        void addToken(String jti) {
+            tokens.add(jti);
+            bloom.put(jti);
+        }
+    }
+}
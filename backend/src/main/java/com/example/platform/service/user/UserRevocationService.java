@@ -0,0 +1,67 @@
+package com.example.platform.service.user;
+
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Множество отключенных пользователей в памяти: фильтр JWT в stateless-режиме проверяет его вместо запроса в БД.
+ * Изменения на этом экземпляре видны сразу, на остальных — после очередного обновления.
+ */
+@Service
+public class UserRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRevocationService.class);
+
+    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+
+    // Заменяется целиком, чтение без блокировок
+    private volatile Set<Long> disabledUserIds = Set.of();
+
+    public UserRevocationService(UserRepository userRepository, CustomUserDetailsService userDetailsService) {
+        this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+    }
+
+    public boolean isRevoked(Long userId) {
+        return disabledUserIds.contains(userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-interval-ms:30000}",
+            initialDelayString = "${security.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        List<Long> disabled = userRepository.findDisabledUserIds();
+        disabledUserIds = Set.copyOf(disabled);
+        logger.debug("Loaded {} disabled users", disabled.size());
+    }
+
+    @Transactional
+    public void setEnabled(Long userId, boolean enabled) {
+        if (userRepository.setEnabled(userId, enabled) == 0) {
+            throw new GlobalExceptionHandler.ResourceNotFoundException("User not found");
+        }
+        userDetailsService.evict(userId);
+        synchronized (this) {
+            Set<Long> updated = new HashSet<>(disabledUserIds);
+            if (enabled) {
+                updated.remove(userId);
+            } else {
+                updated.add(userId);
+            }
+            disabledUserIds = Set.copyOf(updated);
+        }
+        logger.info("User {} {}", userId, enabled ? "enabled" : "disabled");
+    }
+}
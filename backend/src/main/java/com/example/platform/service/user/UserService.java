@@ -1,27 +1,44 @@
 package com.example.platform.service.user;
 
+import com.example.platform.CustomUserDetails;
 import com.example.platform.dto.fund.FundResponse;
+import com.example.platform.dto.auth.AuthTokens;
 import com.example.platform.dto.auth.LoginRequest;
 import com.example.platform.dto.OrganizerProfileResponse;
 import com.example.platform.dto.auth.RegistrationRequest;
+import com.example.platform.dto.auth.SessionResponse;
+import com.example.platform.exception.TooManyRequestsException;
 import com.example.platform.mapper.FundMapper;
+import com.example.platform.model.Enum.Role;
 import com.example.platform.model.User;
 import com.example.platform.repository.FundRepository;
 import com.example.platform.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 @Service
 public class UserService {
 
+    // ADMIN назначается только вручную, при регистрации его выбрать нельзя
+    private static final Set<Role> SELF_REGISTERED_ROLES = EnumSet.of(Role.DONOR, Role.OWNER, Role.VOLUNTEER);
+
     private final UserRepository userRepository;
 
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
@@ -34,34 +51,123 @@ public class UserService {
 
     private final FundMapper fundMapper;
 
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder bCryptPasswordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, FundRepository fundRepository, FundMapper fundMapper) {
+    private final TokenRevocationService tokenRevocationService;
+
+    private final CustomUserDetailsService userDetailsService;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final LoginThrottle loginThrottle;
+
+    private final ThreadPoolTaskExecutor loginExecutor;
+
+    @Value("${security.login.timeout-ms:10000}")
+    private long loginTimeoutMs;
+
+    public UserService(UserRepository userRepository, BCryptPasswordEncoder bCryptPasswordEncoder, AuthenticationManager authenticationManager, JwtService jwtService, FundRepository fundRepository, FundMapper fundMapper, TokenRevocationService tokenRevocationService, CustomUserDetailsService userDetailsService, RefreshTokenService refreshTokenService, LoginThrottle loginThrottle, ThreadPoolTaskExecutor loginExecutor) {
         this.userRepository = userRepository;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.fundRepository = fundRepository;
         this.fundMapper = fundMapper;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginThrottle = loginThrottle;
+        this.loginExecutor = loginExecutor;
     }
 
     public User register(RegistrationRequest request) {
+        if (!SELF_REGISTERED_ROLES.contains(request.getRole())) {
+            throw new IllegalStateException("Role is not available for registration: " + request.getRole());
+        }
         User user = new User();
         user.setUsername(request.getUsername());
         user.setDisplayName(request.getDisplayName());
         user.setPassword(bCryptPasswordEncoder.encode(request.getPassword()));
         user.setRole(request.getRole());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // Логин мог попасть в кэш как неизвестный
+        userDetailsService.evict(saved.getUsername());
+        return saved;
     }
 
-    public String verify(LoginRequest loginRequest) {
+    /**
+     * Вход с ограничением частоты по логину и IP. Проверка пароля выполняется на пуле loginExecutor,
+     * поток Tomcat освобождается сразу; при переполненной очереди запрос отклоняется с 429.
+     * Успешный вход открывает сессию refresh-токена, дальше access-токен обновляется без пароля.
+     */
+    public CompletableFuture<AuthTokens> login(LoginRequest loginRequest, String clientIp, String userAgent) {
+        long retryAfter = loginThrottle.tryAcquire(loginRequest.getUsername(), clientIp);
+        if (retryAfter > 0) {
+            throw new TooManyRequestsException("Too many login attempts", retryAfter);
+        }
 
+        CompletableFuture<AuthTokens> result = new CompletableFuture<>();
+        try {
+            loginExecutor.execute(() -> {
+                // Клиент уже получил ответ по таймауту — хеш не считаем
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    User user = authenticate(loginRequest);
+                    result.complete(refreshTokenService.startSession(user, userAgent, clientIp));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            throw new TooManyRequestsException("Login service is busy", 1);
+        }
+        CompletableFuture.delayedExecutor(loginTimeoutMs, TimeUnit.MILLISECONDS).execute(
+                () -> result.completeExceptionally(new TooManyRequestsException("Login timed out", 1)));
+        return result;
+    }
+
+    private User authenticate(LoginRequest loginRequest) {
         Authentication authenticate = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        // Пользователь уже загружен провайдером аутентификации
+        return ((CustomUserDetails) authenticate.getPrincipal()).getUser();
+    }
 
-        if(authenticate.isAuthenticated()) {
+    public AuthTokens refresh(String refreshToken, String clientIp, String userAgent) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token required");
+        }
+        return refreshTokenService.rotate(refreshToken, userAgent, clientIp);
+    }
 
-            User user = userRepository.findByUsername(loginRequest.getUsername());
-            return jwtService.generateToken(user);
+    public void logout(String token, boolean allSessions) {
+        Claims claims = jwtService.parseToken(token);
+        if (allSessions) {
+            Long userId = claims.get("uid", Long.class);
+            if (userId == null) {
+                userId = userRepository.findByUsername(claims.getSubject()).getId();
+            }
+            tokenRevocationService.revokeAllForUser(userId);
+        } else {
+            tokenRevocationService.revoke(claims);
+            String sessionId = claims.get("sid", String.class);
+            if (sessionId != null) {
+                refreshTokenService.revokeSession(sessionId);
+            }
         }
-        return "fail";
+    }
+
+    public List<SessionResponse> getSessions(String token) {
+        Claims claims = jwtService.parseToken(token);
+        return refreshTokenService.getSessions(userIdOf(claims), claims.get("sid", String.class));
+    }
+
+    public void revokeSession(String token, String sessionId) {
+        refreshTokenService.revokeSession(userIdOf(jwtService.parseToken(token)), sessionId);
+    }
+
+    private Long userIdOf(Claims claims) {
+        Long userId = claims.get("uid", Long.class);
+        return userId != null ? userId : userRepository.findByUsername(claims.getSubject()).getId();
     }
 
     @Transactional
@@ -0,0 +1,32 @@
+package com.example.platform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Стоимость BCrypt: ниже 14 только по явному флагу, хеши пересчитываются только вверх.
+ */
+class BCryptCostTest {
+
+    private final SecurityConfig config = new SecurityConfig(null, null);
+
+    @Test
+    void lowerCostRequiresExplicitOptIn() {
+        assertThrows(IllegalStateException.class, () -> config.bCryptPasswordEncoder(10, false));
+        assertNotNull(config.bCryptPasswordEncoder(10, true));
+    }
+
+    @Test
+    void hashesAreNeverRehashedDownward() {
+        String cheap = new BCryptPasswordEncoder(4).encode("secret");
+        String expensive = new BCryptPasswordEncoder(6).encode("secret");
+
+        BCryptPasswordEncoder encoder = config.bCryptPasswordEncoder(5, true);
+
+        assertTrue(encoder.upgradeEncoding(cheap));
+        assertFalse(encoder.upgradeEncoding(expensive));
+        assertTrue(encoder.matches("secret", expensive));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.platform.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сверяет префиксное дерево с наивной проверкой через {@link InetAddress} на случайных диапазонах и адресах.
+ */
+class CidrMatcherTest {
+
+    private static final List<String> YOOKASSA_RANGES = List.of(
+            "185.71.76.0/27", "185.71.77.0/27", "77.75.153.0/25", "77.75.156.11",
+            "77.75.156.35", "77.75.154.128/25", "2a02:5180::/32");
+
+    @Test
+    void matchesYooKassaRanges() {
+        CidrMatcher matcher = CidrMatcher.compile(YOOKASSA_RANGES);
+
+        assertTrue(matcher.matches("185.71.76.0"));
+        assertTrue(matcher.matches("185.71.76.31"));
+        assertFalse(matcher.matches("185.71.76.32"));
+        assertTrue(matcher.matches("77.75.156.11"));
+        assertFalse(matcher.matches("77.75.156.12"));
+        assertTrue(matcher.matches("2a02:5180::1"));
+        assertTrue(matcher.matches("2a02:5180:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertFalse(matcher.matches("2a02:5181::1"));
+    }
+
+    @Test
+    void acceptsPortsZonesBracketsAndMappedAddresses() {
+        CidrMatcher matcher = CidrMatcher.compile(YOOKASSA_RANGES);
+
+        assertTrue(matcher.matches("185.71.77.5:443"));
+        assertTrue(matcher.matches(" 185.71.77.5 "));
+        assertTrue(matcher.matches("[2a02:5180::10]:443"));
+        assertTrue(matcher.matches("2a02:5180::10%eth0"));
+        assertTrue(matcher.matches("::ffff:185.71.76.1"));
+        assertTrue(matcher.matches("::FFFF:B947:4C01"));
+        assertFalse(matcher.matches("::185.71.76.1"));
+    }
+
+    @Test
+    void rejectsMalformedAddresses() {
+        CidrMatcher matcher = CidrMatcher.compile(List.of("0.0.0.0/0", "::/0"));
+
+        for (String invalid : List.of("", " ", "unknown", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1..2.3",
+                "1.2.3.4:", ":::", "1:2:3:4:5:6:7:8:9", "1::2::3", "12345::", "::g", "[::1", "1:2:3:4:5:6:7:1.2.3.4")) {
+            assertFalse(matcher.matches(invalid), invalid);
+        }
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("::/129")));
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("example.com")));
+        assertThrows(IllegalArgumentException.class, () -> CidrMatcher.compile(List.of("10.0.0.0/x")));
+    }
+
+    @Test
+    void agreesWithReferenceOnRandomRanges() throws UnknownHostException {
+        Random random = new Random(20240601L);
+        for (int round = 0; round < 200; round++) {
+            List<String> ranges = new ArrayList<>();
+            List<byte[]> networks = new ArrayList<>();
+            List<Integer> prefixes = new ArrayList<>();
+            for (int i = 0, n = 1 + random.nextInt(8); i < n; i++) {
+                boolean ipv4 = random.nextBoolean();
+                byte[] address = randomAddress(random, ipv4);
+                int prefix = random.nextInt((ipv4 ? 32 : 128) + 1);
+                ranges.add(format(address) + "/" + prefix);
+                networks.add(mapped(address));
+                prefixes.add(ipv4 ? 96 + prefix : prefix);
+            }
+            CidrMatcher matcher = CidrMatcher.compile(ranges);
+
+            for (int probe = 0; probe < 200; probe++) {
+                byte[] address;
+                if (random.nextInt(3) == 0) {
+                    address = randomAddress(random, random.nextBoolean());
+                } else {
+                    // Адрес рядом с одной из сетей, чтобы проверялись и попадания, и границы
+                    int index = random.nextInt(networks.size());
+                    address = nearby(random, networks.get(index), prefixes.get(index));
+                }
+                boolean expected = referenceMatches(networks, prefixes, mapped(address));
+                String text = format(address);
+                assertEquals(expected, matcher.matches(text), () -> text + " in " + ranges);
+            }
+        }
+    }
+
+    private static boolean referenceMatches(List<byte[]> networks, List<Integer> prefixes, byte[] address) {
+        BigInteger value = new BigInteger(1, address);
+        for (int i = 0; i < networks.size(); i++) {
+            int hostBits = 128 - prefixes.get(i);
+            if (value.shiftRight(hostBits).equals(new BigInteger(1, networks.get(i)).shiftRight(hostBits))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] randomAddress(Random random, boolean ipv4) {
+        byte[] address = new byte[ipv4 ? 4 : 16];
+        random.nextBytes(address);
+        if (!ipv4 && random.nextBoolean()) {
+            // Серии нулей, чтобы в записи встречалось сокращение ::
+            int from = random.nextInt(8) * 2;
+            int to = Math.min(16, from + 2 * (1 + random.nextInt(4)));
+            for (int i = from; i < to; i++) {
+                address[i] = 0;
+            }
+        }
+        return address;
+    }
+
+    private static byte[] nearby(Random random, byte[] network, int prefix) {
+        byte[] address = network.clone();
+        int flip = random.nextBoolean() ? prefix - 1 : prefix + random.nextInt(129 - prefix);
+        if (flip >= 0 && flip < 128) {
+            address[flip / 8] ^= (byte) (0x80 >>> (flip % 8));
+        }
+        if (prefix >= 96 && random.nextBoolean()) {
+            return new byte[]{address[12], address[13], address[14], address[15]};
+        }
+        return address;
+    }
+
+    private static byte[] mapped(byte[] address) {
+        if (address.length == 16) {
+            return address;
+        }
+        byte[] result = new byte[16];
+        result[10] = (byte) 0xff;
+        result[11] = (byte) 0xff;
+        System.arraycopy(address, 0, result, 12, 4);
+        return result;
+    }
+
+    private static String format(byte[] address) throws UnknownHostException {
+        // InetAddress сворачивает ::ffff:a.b.c.d в IPv4, сокращение :: делаем сами
+        String full = InetAddress.getByAddress(address).getHostAddress();
+        if (address.length == 4) {
+            return full;
+        }
+        String[] groups = full.split(":");
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int i = 0; i < groups.length; ) {
+            int j = i;
+            while (j < groups.length && groups[j].equals("0")) {
+                j++;
+            }
+            if (j - i > bestLength) {
+                bestStart = i;
+                bestLength = j - i;
+            }
+            i = Math.max(j, i + 1);
+        }
+        if (bestStart < 0) {
+            return full;
+        }
+        String head = String.join(":", List.of(groups).subList(0, bestStart));
+        String tail = String.join(":", List.of(groups).subList(bestStart + bestLength, groups.length));
+        return head + "::" + tail;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.platform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientIpResolverTest {
+
+    // Свой список прокси, независимый от yookassa.webhook-trusted-proxies
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8"));
+
+    @Test
+    void trustsForwardedHeaderOnlyFromConfiguredProxies() {
+        MockHttpServletRequest viaProxy = new MockHttpServletRequest();
+        viaProxy.setRemoteAddr("10.0.0.2");
+        viaProxy.addHeader("X-Forwarded-For", "198.51.100.4");
+
+        MockHttpServletRequest viaOtherNetwork = new MockHttpServletRequest();
+        viaOtherNetwork.setRemoteAddr("172.18.0.5");
+        viaOtherNetwork.addHeader("X-Forwarded-For", "198.51.100.4");
+
+        assertEquals("198.51.100.4", resolver.resolve(viaProxy));
+        assertEquals("172.18.0.5", resolver.resolve(viaOtherNetwork));
+    }
+}
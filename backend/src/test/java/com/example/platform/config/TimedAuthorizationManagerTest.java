@@ -0,0 +1,44 @@
+package com.example.platform.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверка @PreAuthorize попадает в фазу method_security, отказ тоже замеряется.
+ */
+class TimedAuthorizationManagerTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void recordsMethodSecurityPhaseForCurrentRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        TimedAuthorizationManager<Object> manager =
+                new TimedAuthorizationManager<>((authentication, object) -> new AuthorizationDecision(false));
+
+        assertFalse(manager.check(() -> null, new Object()).isGranted());
+        assertTrue(timings.phases().containsKey(RequestTimings.METHOD_SECURITY));
+    }
+
+    @Test
+    void delegatesOutsideHttpRequest() {
+        TimedAuthorizationManager<Object> manager =
+                new TimedAuthorizationManager<>((authentication, object) -> new AuthorizationDecision(true));
+
+        assertTrue(manager.check(() -> null, new Object()).isGranted());
+    }
+}
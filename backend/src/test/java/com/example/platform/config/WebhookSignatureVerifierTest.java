@@ -0,0 +1,54 @@
+package com.example.platform.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookSignatureVerifierTest {
+
+    private static final String SECRET = "test_secret";
+    // Пробелы и порядок полей важны: подписываются байты как пришли
+    private static final byte[] BODY = "{ \"type\":\"notification\", \"event\":\"payment.succeeded\", \"object\":{\"id\":\"p-1\"} }"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier(config());
+
+    @Test
+    void acceptsSignatureOverRawBody() throws Exception {
+        assertTrue(verifier.verify("v1 p-1 1700000000 " + sign("p-1.1700000000.", BODY), BODY));
+        // Mac переиспользуется потоком: повторная проверка дает тот же результат
+        assertTrue(verifier.verify("v1 p-1 1700000000 " + sign("p-1.1700000000.", BODY), BODY));
+    }
+
+    @Test
+    void rejectsTamperedBodyOrHeader() throws Exception {
+        String signature = sign("p-1.1700000000.", BODY);
+        byte[] tampered = BODY.clone();
+        tampered[tampered.length - 3] = ' ';
+
+        assertFalse(verifier.verify("v1 p-1 1700000000 " + signature, tampered));
+        assertFalse(verifier.verify("v1 p-1 1700000001 " + signature, BODY));
+        assertFalse(verifier.verify("v2 p-1 1700000000 " + signature, BODY));
+        assertFalse(verifier.verify("v1 p-1 1700000000 not-base64!", BODY));
+        assertFalse(verifier.verify(null, BODY));
+    }
+
+    private static YooKassaConfig config() {
+        YooKassaConfig config = new YooKassaConfig();
+        config.setSecretKey(SECRET);
+        return config;
+    }
+
+    private static String sign(String prefix, byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        mac.update(prefix.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(mac.doFinal(body));
+    }
+}
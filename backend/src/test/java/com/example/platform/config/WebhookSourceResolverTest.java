@@ -0,0 +1,48 @@
+package com.example.platform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookSourceResolverTest {
+
+    private final WebhookSourceResolver resolver = new WebhookSourceResolver(new YooKassaConfig());
+
+    @Test
+    void ignoresForwardedHeadersFromUntrustedPeer() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "185.71.76.1");
+        request.addHeader("X-Real-IP", "185.71.76.1");
+
+        assertEquals("203.0.113.7", resolver.resolveClientIp(request));
+    }
+
+    @Test
+    void takesRightmostUntrustedForwardedAddressBehindProxy() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("172.18.0.5");
+        // Левый элемент подставлен клиентом, правый добавил nginx
+        request.addHeader("X-Forwarded-For", "185.71.76.1, 203.0.113.7, 10.0.0.3");
+
+        String clientIp = resolver.resolveClientIp(request);
+
+        assertEquals("203.0.113.7", clientIp);
+        assertFalse(resolver.isAllowed(clientIp));
+    }
+
+    @Test
+    void acceptsYooKassaAddressForwardedByNginx() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("172.18.0.5");
+        request.addHeader("X-Forwarded-For", "2a02:5180::15");
+
+        String clientIp = resolver.resolveClientIp(request);
+
+        assertEquals("2a02:5180::15", clientIp);
+        assertTrue(resolver.isAllowed(clientIp));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.platform.controller.donate;
+
+import com.example.platform.config.SecurityConfig;
+import com.example.platform.service.donate.DonationService;
+import com.example.platform.service.user.JwtService;
+import com.example.platform.service.user.TokenRevocationService;
+import com.example.platform.service.user.UserRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Роли вне /api/admin/** проверяет только @PreAuthorize: тест падает, если method security выключат.
+ */
+@WebMvcTest(DonationController.class)
+@Import(SecurityConfig.class)
+class DonationSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DonationService donationService;
+
+    // Зависимости SecurityConfig и JwtAuthenticationFilter
+    @MockitoBean
+    private JwtService jwtService;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private UserDetailsPasswordService userDetailsPasswordService;
+    @MockitoBean
+    private UserRevocationService userRevocationService;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void onlyDonorsCanDonate() throws Exception {
+        String body = "{\"fundId\": 1, \"amount\": 100, \"returnUrl\": \"https://example.com/\"}";
+        mockMvc.perform(post("/api/v1/donations").with(user("admin@example.com").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/donations").with(user("owner@example.com").roles("OWNER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/donations/1/confirmation").with(user("owner@example.com").roles("OWNER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(donationService);
+    }
+
+    @Test
+    void volunteerCannotReadDonations() throws Exception {
+        mockMvc.perform(get("/api/v1/donations/1").with(user("volunteer@example.com").roles("VOLUNTEER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/donations/my").with(user("volunteer@example.com").roles("VOLUNTEER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(donationService);
+    }
+
+    @Test
+    void donorCanReadDonation() throws Exception {
+        mockMvc.perform(get("/api/v1/donations/1").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isOk());
+
+        verify(donationService).getDonation(1L);
+    }
+
+    @Test
+    void donorCannotCompletePaymentsOrListFundDonations() throws Exception {
+        mockMvc.perform(post("/api/v1/donations/test/complete-payment/p-1").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/donations/fund/1").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(donationService);
+    }
+
+    @Test
+    void ownerCanListFundDonations() throws Exception {
+        mockMvc.perform(get("/api/v1/donations/fund/1").with(user("owner@example.com").roles("OWNER")))
+                .andExpect(status().isOk());
+
+        verify(donationService).getFundDonations(1L);
+    }
+}
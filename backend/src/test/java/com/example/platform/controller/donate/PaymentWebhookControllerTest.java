@@ -0,0 +1,57 @@
+package com.example.platform.controller.donate;
+
+import com.example.platform.config.WebhookSignatureVerifier;
+import com.example.platform.config.WebhookSourceResolver;
+import com.example.platform.service.payment.PaymentNotificationInboxService;
+import com.example.platform.service.payment.PaymentNotificationReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * По умолчанию уведомление без подписи отклоняется, а не проходит по одному списку IP.
+ */
+class PaymentWebhookControllerTest {
+
+    private static final byte[] BODY = "{\"type\":\"notification\",\"event\":\"payment.succeeded\",\"object\":{\"id\":\"p-1\"}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final PaymentNotificationInboxService inboxService = mock(PaymentNotificationInboxService.class);
+    private final WebhookSignatureVerifier signatureVerifier = mock(WebhookSignatureVerifier.class);
+    private final PaymentWebhookController controller = new PaymentWebhookController(inboxService,
+            mock(WebhookSourceResolver.class), signatureVerifier, new PaymentNotificationReader(new ObjectMapper()));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "signatureRequired", true);
+        ReflectionTestUtils.setField(controller, "testMode", true);
+    }
+
+    @Test
+    void unsignedNotificationIsRejectedWhenSignatureRequired() {
+        ResponseEntity<Void> response = controller.handlePaymentNotification(new MockHttpServletRequest(), null, BODY);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(inboxService, signatureVerifier);
+    }
+
+    @Test
+    void signedNotificationIsQueued() {
+        when(signatureVerifier.verify("v1 p-1 1 sig", BODY)).thenReturn(true);
+
+        ResponseEntity<Void> response = controller.handlePaymentNotification(new MockHttpServletRequest(), "v1 p-1 1 sig", BODY);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(inboxService).append(eq("p-1"), eq("payment.succeeded"), anyString());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.platform.controller.fund;
+
+import com.example.platform.config.SecurityConfig;
+import com.example.platform.controller.report.FundReportController;
+import com.example.platform.service.donate.DonationService;
+import com.example.platform.service.fund.FundService;
+import com.example.platform.service.report.FundReportService;
+import com.example.platform.service.user.JwtService;
+import com.example.platform.service.user.TokenRevocationService;
+import com.example.platform.service.user.UserRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Фондами и отчетами управляют владельцы (и администраторы, кроме отчетов), доноры и волонтеры получают 403.
+ */
+@WebMvcTest({FundController.class, FundReportController.class})
+@Import(SecurityConfig.class)
+class FundSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FundService fundService;
+    @MockitoBean
+    private DonationService donationService;
+    @MockitoBean
+    private FundReportService fundReportService;
+
+    // Зависимости SecurityConfig и JwtAuthenticationFilter
+    @MockitoBean
+    private JwtService jwtService;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private UserDetailsPasswordService userDetailsPasswordService;
+    @MockitoBean
+    private UserRevocationService userRevocationService;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void ownersAndAdminsListTheirFunds() throws Exception {
+        mockMvc.perform(get("/api/funds/my-funds").with(user("owner@example.com").roles("OWNER")))
+                .andExpect(status().isOk());
+        // Администратор тоже создает фонды и видит их в профиле
+        mockMvc.perform(get("/api/funds/my-funds").with(user("admin@example.com").roles("ADMIN")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/funds/my-funds").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verify(fundService, times(2)).getFundsByCurrentOwner();
+    }
+
+    @Test
+    void donorCannotManageFundsOrSeeTheirDonations() throws Exception {
+        mockMvc.perform(delete("/api/funds/delete/1").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/funds/1/donations").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(fundService, donationService);
+    }
+
+    @Test
+    void onlyOwnerCreatesReports() throws Exception {
+        MockMultipartFile request = new MockMultipartFile("request", "", MediaType.APPLICATION_JSON_VALUE,
+                "{\"description\": \"d\", \"totalSpent\": 10, \"expenses\": [\"e\"], \"purchases\": [\"p\"]}".getBytes());
+        mockMvc.perform(multipart("/api/funds/1/reports").file(request).with(user("admin@example.com").roles("ADMIN")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(multipart("/api/funds/1/reports").file(request).with(user("volunteer@example.com").roles("VOLUNTEER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(fundReportService);
+    }
+}
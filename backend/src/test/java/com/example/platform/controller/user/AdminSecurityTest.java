@@ -0,0 +1,139 @@
+package com.example.platform.controller.user;
+
+import com.example.platform.config.SecurityConfig;
+import com.example.platform.service.donate.DonationService;
+import com.example.platform.service.fund.FundBalanceDriftService;
+import com.example.platform.service.fund.FundLedgerService;
+import com.example.platform.service.fund.FundService;
+import com.example.platform.service.fund.FundStatusUpdater;
+import com.example.platform.service.payment.PaymentNotificationInboxService;
+import com.example.platform.service.payment.PaymentReconciliationService;
+import com.example.platform.service.user.JwtService;
+import com.example.platform.service.user.TokenRevocationService;
+import com.example.platform.service.user.UserRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/admin/** закрыт правилом в цепочке фильтров, а не только @PreAuthorize на методах.
+ */
+@WebMvcTest(AdminController.class)
+@Import(SecurityConfig.class)
+class AdminSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FundStatusUpdater fundStatusUpdater;
+    @MockitoBean
+    private PaymentNotificationInboxService notificationInboxService;
+    @MockitoBean
+    private FundLedgerService fundLedgerService;
+    @MockitoBean
+    private FundService fundService;
+    @MockitoBean
+    private DonationService donationService;
+    @MockitoBean
+    private PaymentReconciliationService reconciliationService;
+    @MockitoBean
+    private FundBalanceDriftService balanceDriftService;
+    @MockitoBean
+    private UserRevocationService userRevocationService;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    // Зависимости SecurityConfig и JwtAuthenticationFilter
+    @MockitoBean
+    private JwtService jwtService;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private UserDetailsPasswordService userDetailsPasswordService;
+
+    @Test
+    void donorCannotReadOrReplayDeadLetters() throws Exception {
+        mockMvc.perform(get("/api/admin/payment-notifications/dead").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/payment-notifications/1/replay").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/payment-notifications/replay-dead").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(notificationInboxService);
+    }
+
+    @Test
+    void donorCannotRefundOrAdjustFundBalance() throws Exception {
+        mockMvc.perform(post("/api/admin/donations/1/refunds").with(user("donor@example.com").roles("DONOR"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 100, \"requestId\": \"req-1\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/funds/1/ledger/adjustments").with(user("donor@example.com").roles("DONOR"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 100000, \"comment\": \"test\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/funds/1/ledger/rebuild").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(donationService, fundLedgerService);
+    }
+
+    @Test
+    void donorCannotStartReconciliation() throws Exception {
+        mockMvc.perform(post("/api/admin/reconciliation").with(user("donor@example.com").roles("DONOR"))
+                        .param("from", "2025-04-18T00:00:00")
+                        .param("to", "2025-04-19T00:00:00"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/reconciliation/1/discrepancies").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(reconciliationService);
+    }
+
+    @Test
+    void donorCannotRepairBalanceDrift() throws Exception {
+        mockMvc.perform(post("/api/admin/funds/balance-drift").with(user("donor@example.com").roles("DONOR"))
+                        .param("dryRun", "false"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(balanceDriftService);
+    }
+
+    @Test
+    void donorCannotDisableOrEnableUsers() throws Exception {
+        mockMvc.perform(post("/api/admin/users/1/disable").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/users/1/enable").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userRevocationService);
+    }
+
+    @Test
+    void donorCannotRevokeOtherUsersSessions() throws Exception {
+        mockMvc.perform(post("/api/admin/users/1/revoke-sessions").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void adminCanReadDeadLetters() throws Exception {
+        mockMvc.perform(get("/api/admin/payment-notifications/dead").with(user("admin@example.com").roles("ADMIN")))
+                .andExpect(status().isOk());
+    }
+}
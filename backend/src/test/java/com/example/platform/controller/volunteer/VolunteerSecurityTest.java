@@ -0,0 +1,85 @@
+package com.example.platform.controller.volunteer;
+
+import com.example.platform.config.SecurityConfig;
+import com.example.platform.service.user.JwtService;
+import com.example.platform.service.user.TokenRevocationService;
+import com.example.platform.service.user.UserRevocationService;
+import com.example.platform.service.volunteer.VolunteerRequestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Заявку подает волонтер, рассматривают владелец фонда или администратор.
+ */
+@WebMvcTest(VolunteerController.class)
+@Import(SecurityConfig.class)
+class VolunteerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private VolunteerRequestService volunteerRequestService;
+
+    // Зависимости SecurityConfig и JwtAuthenticationFilter
+    @MockitoBean
+    private JwtService jwtService;
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+    @MockitoBean
+    private UserDetailsPasswordService userDetailsPasswordService;
+    @MockitoBean
+    private UserRevocationService userRevocationService;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    void onlyVolunteersApply() throws Exception {
+        mockMvc.perform(post("/api/volunteers/create/1").with(user("owner@example.com").roles("OWNER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"v@example.com\", \"telegram\": \"@volunteer\", \"city\": \"Moscow\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/volunteers/my-requests").with(user("donor@example.com").roles("DONOR")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(volunteerRequestService);
+    }
+
+    @Test
+    void volunteerCannotReviewRequests() throws Exception {
+        mockMvc.perform(get("/api/volunteers/fund/1").with(user("volunteer@example.com").roles("VOLUNTEER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(patch("/api/volunteers/1/status").with(user("volunteer@example.com").roles("VOLUNTEER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"ACCEPTED\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/volunteers/1").with(user("volunteer@example.com").roles("VOLUNTEER")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(volunteerRequestService);
+    }
+
+    @Test
+    void ownerSeesRequestsForFund() throws Exception {
+        mockMvc.perform(get("/api/volunteers/fund/1").with(user("owner@example.com").roles("OWNER")))
+                .andExpect(status().isOk());
+
+        verify(volunteerRequestService).getRequestsByFund(1L);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.platform.service.fund;
+
+import com.example.platform.dto.fund.BalanceDriftReport;
+import com.example.platform.dto.fund.FundBalanceDrift;
+import com.example.platform.repository.FundRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Исправление передает в UPDATE прочитанные суммы: фонд, сумма которого успела измениться,
+ * пропускается и в отчете считается неисправленным.
+ */
+class FundBalanceDriftServiceTest {
+
+    private final FundRepository fundRepository = mock(FundRepository.class);
+    private final FundBalanceDriftService service = new FundBalanceDriftService(fundRepository);
+
+    @Test
+    void fundChangedAfterReadIsReportedAsNotCorrected() {
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+        when(fundRepository.findBalanceDrift()).thenReturn(List.of(
+                drift(1L, "100", "150"),
+                drift(2L, "300", "250")));
+        when(fundRepository.count()).thenReturn(10L);
+        // Фонд 2 получил пожертвование между расчетом и записью: UPDATE его не тронул
+        when(fundRepository.correctBalances(any(), any(), any(), anyString())).thenReturn(1);
+
+        BalanceDriftReport report = service.repair(null, false);
+
+        verify(fundRepository).correctBalances(
+                eq(new Long[]{1L, 2L}),
+                eq(new BigDecimal[]{new BigDecimal("100"), new BigDecimal("300")}),
+                eq(new BigDecimal[]{new BigDecimal("150"), new BigDecimal("250")}),
+                startsWith("drift:"));
+        assertEquals(10L, report.fundsChecked());
+        assertEquals(2, report.drifted());
+        assertEquals(1, report.corrected());
+        assertEquals(BigDecimal.ZERO, report.totalDelta());
+    }
+
+    @Test
+    void dryRunOnlyReports() {
+        when(fundRepository.findBalanceDrift(List.of(1L))).thenReturn(List.of(drift(1L, "100", "150")));
+
+        BalanceDriftReport report = service.repair(List.of(1L), true);
+
+        verify(fundRepository, never()).correctBalances(any(), any(), any(), anyString());
+        assertEquals(1, report.drifted());
+        assertEquals(0, report.corrected());
+        assertArrayEquals(new Object[]{new BigDecimal("50")},
+                report.funds().stream().map(BalanceDriftReport.Drift::delta).toArray());
+    }
+
+    private static FundBalanceDrift drift(Long fundId, String stored, String expected) {
+        return new FundBalanceDrift() {
+            @Override
+            public Long getFundId() {
+                return fundId;
+            }
+
+            @Override
+            public BigDecimal getStoredAmount() {
+                return new BigDecimal(stored);
+            }
+
+            @Override
+            public BigDecimal getExpectedAmount() {
+                return new BigDecimal(expected);
+            }
+        };
+    }
+}
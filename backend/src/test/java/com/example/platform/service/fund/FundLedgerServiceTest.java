@@ -0,0 +1,120 @@
+package com.example.platform.service.fund;
+
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.model.Donation;
+import com.example.platform.model.Enum.LedgerEntryType;
+import com.example.platform.model.Fund;
+import com.example.platform.model.FundBalanceSnapshot;
+import com.example.platform.model.FundLedgerEntry;
+import com.example.platform.repository.FundBalanceSnapshotRepository;
+import com.example.platform.repository.FundLedgerRepository;
+import com.example.platform.repository.FundRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Возвраты не превышают сумму пожертвования, баланс собирается из снимка и хвоста журнала.
+ */
+class FundLedgerServiceTest {
+
+    private final FundLedgerRepository ledgerRepository = mock(FundLedgerRepository.class);
+    private final FundBalanceSnapshotRepository snapshotRepository = mock(FundBalanceSnapshotRepository.class);
+    private final FundRepository fundRepository = mock(FundRepository.class);
+    private final FundUpdateService fundUpdateService = mock(FundUpdateService.class);
+    private final FundLedgerService service =
+            new FundLedgerService(ledgerRepository, snapshotRepository, fundRepository, fundUpdateService);
+
+    @Test
+    void partialRefundsAddUpToFullRefund() {
+        Donation donation = donation(new BigDecimal("100"));
+        when(ledgerRepository.sumReversed(eq(5L), anyCollection())).thenReturn(BigDecimal.ZERO, new BigDecimal("40"));
+
+        assertFalse(service.recordRefund(donation, "r-1", new BigDecimal("40")));
+        assertTrue(service.recordRefund(donation, "r-2", new BigDecimal("60")));
+
+        ArgumentCaptor<FundLedgerEntry> entries = ArgumentCaptor.forClass(FundLedgerEntry.class);
+        verify(ledgerRepository, times(2)).save(entries.capture());
+        assertEquals(LedgerEntryType.PARTIAL_REFUND, entries.getAllValues().get(0).getType());
+        assertEquals(new BigDecimal("-40"), entries.getAllValues().get(0).getAmount());
+        assertEquals(LedgerEntryType.REFUND, entries.getAllValues().get(1).getType());
+        assertEquals("refund:r-2", entries.getAllValues().get(1).getExternalId());
+        verify(fundUpdateService).updateFundAmount(1L, new BigDecimal("-60"));
+    }
+
+    @Test
+    void refundOverDonationAmountIsRejected() {
+        Donation donation = donation(new BigDecimal("100"));
+        when(ledgerRepository.sumReversed(eq(5L), anyCollection())).thenReturn(new BigDecimal("80"));
+
+        assertThrows(IllegalStateException.class, () -> service.recordRefund(donation, "r-2", new BigDecimal("30")));
+
+        verifyNoInteractions(fundUpdateService);
+        verify(ledgerRepository, never()).save(any());
+    }
+
+    @Test
+    void repeatedRefundNotificationIsNotRecordedTwice() {
+        Donation donation = donation(new BigDecimal("100"));
+        when(ledgerRepository.sumReversed(eq(5L), anyCollection())).thenReturn(new BigDecimal("100"));
+        when(ledgerRepository.existsByExternalId("refund:r-1")).thenReturn(true);
+
+        assertTrue(service.recordRefund(donation, "r-1", new BigDecimal("100")));
+
+        verifyNoInteractions(fundUpdateService);
+        verify(ledgerRepository, never()).save(any());
+    }
+
+    @Test
+    void balanceIsSnapshotPlusLaterEntries() {
+        FundBalanceSnapshot snapshot = new FundBalanceSnapshot();
+        snapshot.setBalance(new BigDecimal("500"));
+        snapshot.setLastEntryId(10L);
+        when(snapshotRepository.findTopByFundIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.of(snapshot));
+        when(ledgerRepository.sumAfter(1L, 10L)).thenReturn(new BigDecimal("-25"));
+
+        assertEquals(new BigDecimal("475"), service.getBalance(1L));
+        verify(ledgerRepository, never()).sumAfter(1L, 0L);
+    }
+
+    @Test
+    void snapshotRecordsLastEntryUnderFundLock() {
+        when(fundRepository.lockById(1L)).thenReturn(1L);
+        when(snapshotRepository.findTopByFundIdOrderByLastEntryIdDesc(1L)).thenReturn(Optional.empty());
+        when(ledgerRepository.sumAfter(1L, 0L)).thenReturn(new BigDecimal("300"));
+        when(ledgerRepository.findLastEntryId(1L)).thenReturn(12L);
+
+        assertEquals(new BigDecimal("300"), service.snapshot(1L));
+
+        ArgumentCaptor<FundBalanceSnapshot> saved = ArgumentCaptor.forClass(FundBalanceSnapshot.class);
+        verify(snapshotRepository).save(saved.capture());
+        assertEquals(new BigDecimal("300"), saved.getValue().getBalance());
+        assertEquals(12L, saved.getValue().getLastEntryId());
+    }
+
+    @Test
+    void snapshotOfUnknownFundFails() {
+        when(fundRepository.lockById(anyLong())).thenReturn(null);
+
+        assertThrows(GlobalExceptionHandler.ResourceNotFoundException.class, () -> service.snapshot(99L));
+        verify(snapshotRepository, never()).save(any());
+    }
+
+    private static Donation donation(BigDecimal amount) {
+        Fund fund = new Fund();
+        fund.setId(1L);
+        Donation donation = new Donation();
+        donation.setId(5L);
+        donation.setFund(fund);
+        donation.setAmount(amount);
+        return donation;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.model.Enum.InboxStatus;
+import com.example.platform.model.PaymentNotificationInbox;
+import com.example.platform.repository.PaymentNotificationInboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Повторы и dead letters входящего журнала. Порядок по платежу держит запрос lockDueEntries:
+ * пока раннее уведомление в PENDING или PROCESSING, более поздние по тому же платежу не выдаются.
+ */
+class PaymentNotificationInboxServiceTest {
+
+    private final PaymentNotificationInboxRepository inboxRepository = mock(PaymentNotificationInboxRepository.class);
+    private final PaymentNotificationInboxService service = new PaymentNotificationInboxService(inboxRepository);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+    }
+
+    @Test
+    void failedNotificationStaysPendingSoLaterEventsWait() {
+        PaymentNotificationInbox entry = entry(1L, 1);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+
+        LocalDateTime before = LocalDateTime.now();
+        service.markAttemptFailed(1L, "Payment not found");
+
+        // Остается PENDING, а не уходит вперед очереди: следующие события платежа ждут его
+        assertEquals(InboxStatus.PENDING, entry.getStatus());
+        assertEquals("Payment not found", entry.getLastError());
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plus(Duration.ofSeconds(5))));
+    }
+
+    @Test
+    void exhaustedNotificationGoesToDeadLettersAndCanBeReplayed() {
+        PaymentNotificationInbox entry = entry(1L, 3);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+
+        service.markAttemptFailed(1L, "HTTP 500");
+        assertEquals(InboxStatus.DEAD, entry.getStatus());
+
+        when(inboxRepository.findByStatusOrderByIdAsc(InboxStatus.DEAD)).thenReturn(List.of(entry));
+        assertEquals(1, service.replayDeadLetters());
+
+        assertEquals(InboxStatus.PENDING, entry.getStatus());
+        assertEquals(0, entry.getAttempts());
+        assertFalse(entry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void replayOfUnknownNotificationIsRejected() {
+        when(inboxRepository.findById(42L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.replay(42L));
+    }
+
+    private static PaymentNotificationInbox entry(Long id, int attempts) {
+        PaymentNotificationInbox entry = new PaymentNotificationInbox();
+        entry.setId(id);
+        entry.setPaymentId("p-1");
+        entry.setEvent("payment.succeeded");
+        entry.setStatus(InboxStatus.PROCESSING);
+        entry.setAttempts(attempts);
+        return entry;
+    }
+}
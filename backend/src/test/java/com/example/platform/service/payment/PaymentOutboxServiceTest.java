@@ -0,0 +1,103 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.model.Donation;
+import com.example.platform.model.Enum.DonationStatus;
+import com.example.platform.model.Enum.OutboxStatus;
+import com.example.platform.model.PaymentOutbox;
+import com.example.platform.repository.DonationRepository;
+import com.example.platform.repository.PaymentOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Аренда и повторы outbox: захват, отложенный повтор с backoff, отказ после исчерпания попыток.
+ */
+class PaymentOutboxServiceTest {
+
+    private final PaymentOutboxRepository outboxRepository = mock(PaymentOutboxRepository.class);
+    private final DonationRepository donationRepository = mock(DonationRepository.class);
+    private final PaymentOutboxService service = new PaymentOutboxService(outboxRepository, donationRepository);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(service, "backoffBaseMs", 1000L);
+        ReflectionTestUtils.setField(service, "backoffMaxMs", 3000L);
+        when(outboxRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(donationRepository.save(any(Donation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void claimTakesLeaseAndCountsAttempt() {
+        PaymentOutbox entry = entry(1);
+        when(outboxRepository.lockDueEntries(any(), any(), anyInt())).thenReturn(List.of(entry));
+
+        List<PaymentOutbox> claimed = service.claimDue(10);
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseExpiredBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).lockDueEntries(now.capture(), leaseExpiredBefore.capture(), eq(10));
+        // Зависшая аренда забирается только через leaseSeconds после захвата
+        assertEquals(Duration.ofSeconds(60), Duration.between(leaseExpiredBefore.getValue(), now.getValue()));
+
+        assertEquals(List.of(entry), claimed);
+        assertEquals(OutboxStatus.IN_PROGRESS, entry.getStatus());
+        assertEquals(2, entry.getAttempts());
+        assertEquals(now.getValue(), entry.getClaimedAt());
+    }
+
+    @Test
+    void failedAttemptIsRescheduledWithJitteredBackoff() {
+        PaymentOutbox entry = entry(2);
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+
+        LocalDateTime before = LocalDateTime.now();
+        assertNull(service.markAttemptFailed(1L, "timeout"));
+
+        assertEquals(OutboxStatus.PENDING, entry.getStatus());
+        assertEquals("timeout", entry.getLastError());
+        // Вторая попытка: base << 1 = 2000 мс, с джиттером в [1000, 2000]
+        Duration delay = Duration.between(before, entry.getNextAttemptAt());
+        assertTrue(delay.compareTo(Duration.ofMillis(1000)) >= 0, delay.toString());
+        assertTrue(delay.compareTo(Duration.ofMillis(2500)) < 0, delay.toString());
+        verify(donationRepository, never()).save(any());
+    }
+
+    @Test
+    void lastAttemptFailsEntryAndDonation() {
+        PaymentOutbox entry = entry(3);
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(entry));
+
+        Donation failed = service.markAttemptFailed(1L, "HTTP 500");
+
+        assertSame(entry.getDonation(), failed);
+        assertEquals(OutboxStatus.FAILED, entry.getStatus());
+        assertEquals(DonationStatus.FAILED, failed.getStatus());
+    }
+
+    private static PaymentOutbox entry(int attempts) {
+        Donation donation = new Donation();
+        donation.setId(7L);
+        donation.setStatus(DonationStatus.PENDING);
+
+        PaymentOutbox entry = new PaymentOutbox();
+        entry.setId(1L);
+        entry.setDonation(donation);
+        entry.setAttempts(attempts);
+        return entry;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.platform.service.payment;
+
+import com.example.platform.config.YooKassaConfig;
+import com.example.platform.dto.payment.LocalPaymentState;
+import com.example.platform.dto.payment.PaymentNotification;
+import com.example.platform.dto.payment.PaymentRequest;
+import com.example.platform.model.ReconciliationDiscrepancy;
+import com.example.platform.model.ReconciliationReport;
+import com.example.platform.repository.DonationRepository;
+import com.example.platform.repository.ReconciliationDiscrepancyRepository;
+import com.example.platform.repository.ReconciliationReportRepository;
+import com.example.platform.service.donate.DonationService;
+import com.example.platform.stub.YooKassaStubServer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Сверка против заглушки ЮKassa: исправленным помечается только то, что действительно исправилось.
+ */
+class PaymentReconciliationServiceTest {
+
+    private final DonationService donationService = mock(DonationService.class);
+    private final DonationRepository donationRepository = mock(DonationRepository.class);
+    private final ReconciliationReportRepository reportRepository = mock(ReconciliationReportRepository.class);
+    private final ReconciliationDiscrepancyRepository discrepancyRepository = mock(ReconciliationDiscrepancyRepository.class);
+
+    private YooKassaStubServer stub;
+    private PaymentService paymentService;
+    private PaymentReconciliationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new YooKassaStubServer(0).start();
+        YooKassaConfig config = new YooKassaConfig();
+        config.setShopId("1086333");
+        config.setSecretKey("test_secret");
+        config.setApiUrl(stub.getApiUrl());
+        paymentService = new PaymentService(config, new RestTemplate(),
+                CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+
+        service = new PaymentReconciliationService(paymentService, donationService, donationRepository,
+                reportRepository, discrepancyRepository);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+        ReflectionTestUtils.setField(service, "gatewayLag", Duration.ZERO);
+        ReflectionTestUtils.setField(service, "autoFix", true);
+        ReflectionTestUtils.setField(service, "maxGatewayPayments", 100);
+        when(reportRepository.save(any(ReconciliationReport.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void fixedFlagReflectsOutcomeOfAppliedFix() {
+        String completed = createPayment();
+        paymentService.capturePayment(completed);
+        String failedToApply = createPayment();
+        paymentService.capturePayment(failedToApply);
+        String canceled = createPayment();
+        paymentService.cancelPayment(canceled);
+
+        List<LocalPaymentState> before = sorted(
+                new State(1L, completed, "PENDING", new BigDecimal("100")),
+                new State(2L, failedToApply, "FAILED", new BigDecimal("100")),
+                new State(3L, canceled, "PENDING", new BigDecimal("100")));
+        when(donationRepository.findPaymentStates(any(), any(), eq(""), anyInt())).thenReturn(before);
+        when(donationRepository.updateStatusIfCurrent(eq(List.of(3L)), any(), any())).thenReturn(1);
+        doThrow(new RuntimeException("Donation not found")).when(donationService)
+                .handlePaymentNotification(argThat(notification -> failedToApply.equals(notification.getPaymentId())));
+        when(donationRepository.findPaymentStatesByPaymentIds(anyCollection())).thenReturn(List.of(
+                new State(1L, completed, "COMPLETED", new BigDecimal("100")),
+                new State(2L, failedToApply, "FAILED", new BigDecimal("100")),
+                new State(3L, canceled, "FAILED", new BigDecimal("100"))));
+
+        LocalDateTime now = LocalDateTime.now();
+        ReconciliationReport report = service.reconcile(now.minusHours(1), now.plusHours(1));
+
+        assertNull(report.getError());
+        assertEquals(3, report.getGatewayPayments());
+        assertEquals(2, report.getFixed());
+        assertEquals(1, report.getFlagged());
+
+        // Сначала исправление, потом запись расхождений
+        InOrder order = inOrder(donationService, discrepancyRepository);
+        order.verify(donationService, times(2)).handlePaymentNotification(any(PaymentNotification.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReconciliationDiscrepancy>> saved = ArgumentCaptor.forClass(List.class);
+        order.verify(discrepancyRepository).saveAll(saved.capture());
+
+        Map<String, Boolean> fixed = saved.getValue().stream()
+                .collect(Collectors.toMap(ReconciliationDiscrepancy::getPaymentId, ReconciliationDiscrepancy::isFixed));
+        assertEquals(Map.of(completed, true, failedToApply, false, canceled, true), fixed);
+    }
+
+    @Test
+    void windowAboveGatewayLimitFailsReport() {
+        ReflectionTestUtils.setField(service, "maxGatewayPayments", 1);
+        createPayment();
+        createPayment();
+
+        LocalDateTime now = LocalDateTime.now();
+        ReconciliationReport report = service.reconcile(now.minusHours(1), now.plusHours(1));
+
+        assertNotNull(report.getError());
+        verifyNoInteractions(discrepancyRepository);
+    }
+
+    private String createPayment() {
+        PaymentRequest request = new PaymentRequest();
+        request.setAmount(new BigDecimal("100"));
+        request.setDescription("Пожертвование");
+        request.setReturnUrl("http://localhost:5173/funds/1");
+        return paymentService.createPayment(request, UUID.randomUUID().toString()).getPaymentId();
+    }
+
+    // Тот же порядок, что у findPaymentStates: по payment_id COLLATE "C"
+    private static List<LocalPaymentState> sorted(LocalPaymentState... states) {
+        return Stream.of(states)
+                .sorted(Comparator.comparing(LocalPaymentState::getPaymentId))
+                .toList();
+    }
+
+    private record State(Long getDonationId, String getPaymentId, String getStatus, BigDecimal getAmount)
+            implements LocalPaymentState {
+    }
+}
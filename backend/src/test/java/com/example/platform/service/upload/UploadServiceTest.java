@@ -0,0 +1,139 @@
+package com.example.platform.service.upload;
+
+import com.example.platform.dto.upload.CreateUploadRequest;
+import com.example.platform.dto.upload.UploadSessionResponse;
+import com.example.platform.dto.upload.UploadUsage;
+import com.example.platform.exceptcontroller.GlobalExceptionHandler;
+import com.example.platform.model.Enum.UploadStatus;
+import com.example.platform.model.UploadSession;
+import com.example.platform.model.User;
+import com.example.platform.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Фрагменты принимаются только с текущего смещения, завершение сверяет SHA-256, загрузка используется один раз.
+ */
+class UploadServiceTest {
+
+    private static final byte[] CONTENT = "resumable upload".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private final UploadSessionRepository repository = mock(UploadSessionRepository.class);
+    private UploadService service;
+    private UploadSession session;
+    private User owner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new UploadService(repository, mock(JdbcTemplate.class), directory.toString(),
+                DataSize.ofMegabytes(1), DataSize.ofBytes(10), Duration.ofHours(1), 4, 2, DataSize.ofKilobytes(1));
+
+        owner = new User();
+        owner.setId(7L);
+        session = new UploadSession();
+        session.setId("u-1");
+        session.setOwnerId(7L);
+        session.setFileType("image/png");
+        session.setSize(CONTENT.length);
+        session.setSha256(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT)));
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(repository.findById("u-1")).thenReturn(Optional.of(session));
+        when(repository.advance(eq("u-1"), anyLong(), anyLong())).thenReturn(1);
+    }
+
+    @Test
+    void resumesFromAcceptedOffsetAndCompletes() throws Exception {
+        UploadSessionResponse first = service.appendChunk("u-1", owner, 0, chunk(0, 10));
+        assertEquals(10, first.offset());
+
+        // Повтор уже принятого фрагмента после обрыва отклоняется: клиент должен продолжить с 10
+        assertThrows(GlobalExceptionHandler.ConflictException.class,
+                () -> service.appendChunk("u-1", owner, 0, chunk(0, 10)));
+
+        service.appendChunk("u-1", owner, 10, chunk(10, CONTENT.length));
+        UploadSessionResponse completed = service.complete("u-1", owner);
+
+        assertEquals(UploadStatus.COMPLETED, completed.status());
+        assertArrayEquals(CONTENT, Files.readAllBytes(directory.resolve("u-1")));
+    }
+
+    @Test
+    void chunkLargerThanLimitIsRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> service.appendChunk("u-1", owner, 0, chunk(0, CONTENT.length)));
+        assertEquals(0, session.getReceivedBytes());
+    }
+
+    @Test
+    void checksumMismatchRestartsUpload() throws Exception {
+        session.setSha256("0".repeat(64));
+        service.appendChunk("u-1", owner, 0, chunk(0, 10));
+        service.appendChunk("u-1", owner, 10, chunk(10, CONTENT.length));
+
+        assertThrows(IllegalStateException.class, () -> service.complete("u-1", owner));
+
+        assertEquals(0, session.getReceivedBytes());
+        assertEquals(UploadStatus.OPEN, session.getStatus());
+        assertFalse(Files.exists(directory.resolve("u-1")));
+    }
+
+    @Test
+    void completedUploadIsConsumedOnce() {
+        session.setStatus(UploadStatus.COMPLETED);
+        when(repository.updateStatusIfCurrent("u-1", UploadStatus.COMPLETED, UploadStatus.CONSUMED)).thenReturn(1, 0);
+
+        assertSame(session, service.consume("u-1", owner));
+        assertThrows(IllegalStateException.class, () -> service.consume("u-1", owner));
+    }
+
+    @Test
+    void createRespectsPerUserQuota() {
+        CreateUploadRequest request = new CreateUploadRequest("photo.png", "image/png", 600, "a".repeat(64));
+
+        when(repository.findUsage(eq(7L), any())).thenReturn(new UploadUsage(2L, 100L));
+        assertThrows(IllegalStateException.class, () -> service.create(request, owner));
+
+        when(repository.findUsage(eq(7L), any())).thenReturn(new UploadUsage(1L, 500L));
+        assertThrows(IllegalStateException.class, () -> service.create(request, owner));
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void uploadOfAnotherUserIsNotAccessible() {
+        User other = new User();
+        other.setId(8L);
+
+        assertThrows(AccessDeniedException.class, () -> service.get("u-1", other));
+    }
+
+    private static ByteArrayInputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(CONTENT, from, to - from);
+    }
+}
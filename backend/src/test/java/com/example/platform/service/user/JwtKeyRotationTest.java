@@ -0,0 +1,98 @@
+package com.example.platform.service.user;
+
+import com.example.platform.model.Enum.Role;
+import com.example.platform.model.User;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ротация без простоя: новый ключ подписывает, старый еще проверяет, затем старый убирается.
+ */
+class JwtKeyRotationTest {
+
+    @TempDir
+    Path keys;
+
+    @Test
+    void verifiesPreviousKeyUntilItIsRemoved() throws Exception {
+        write("2026-01", ed25519());
+        Files.writeString(keys.resolve("active"), "2026-01");
+        JwtKeyStore keyStore = new JwtKeyStore(keys.toString(), false);
+        JwtService jwtService = new JwtService(keyStore);
+
+        String oldToken = jwtService.generateToken(user());
+        assertEquals("2026-01", keyStore.current().getSigningKeyId());
+        assertEquals("donor@example.com", jwtService.parseToken(oldToken).getSubject());
+
+        // Новый ключ P-256 становится активным, прежний остается для проверки
+        write("2026-02", p256());
+        Files.writeString(keys.resolve("active"), "2026-02");
+        keyStore.reload();
+
+        String newToken = jwtService.generateToken(user());
+        assertEquals("2026-02", keyStore.current().getSigningKeyId());
+        assertEquals("donor@example.com", jwtService.parseToken(newToken).getSubject());
+        assertEquals("donor@example.com", jwtService.parseToken(oldToken).getSubject());
+
+        Files.delete(keys.resolve("2026-01.pub"));
+        Files.delete(keys.resolve("2026-01.key"));
+        keyStore.reload();
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(oldToken));
+        assertEquals("donor@example.com", jwtService.parseToken(newToken).getSubject());
+    }
+
+    @Test
+    void keepsCurrentKeysWhenReloadFails() throws Exception {
+        write("2026-01", ed25519());
+        Files.writeString(keys.resolve("active"), "2026-01");
+        JwtKeyStore keyStore = new JwtKeyStore(keys.toString(), false);
+
+        // Активным объявлен ключ, который еще не разложен
+        Files.writeString(keys.resolve("active"), "2026-02");
+        keyStore.reload();
+
+        assertEquals("2026-01", keyStore.current().getSigningKeyId());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("donor@example.com");
+        user.setDisplayName("Donor");
+        user.setRole(Role.DONOR);
+        return user;
+    }
+
+    private static KeyPair ed25519() throws Exception {
+        return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    }
+
+    private static KeyPair p256() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private void write(String keyId, KeyPair pair) throws Exception {
+        Files.writeString(keys.resolve(keyId + ".pub"), pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        Files.writeString(keys.resolve(keyId + ".key"), pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+    }
+
+    private static String pem(String type, byte[] der) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        return "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+    }
+}
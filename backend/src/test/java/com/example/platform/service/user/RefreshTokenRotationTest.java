@@ -0,0 +1,93 @@
+package com.example.platform.service.user;
+
+import com.example.platform.dto.auth.AuthTokens;
+import com.example.platform.model.RefreshToken;
+import com.example.platform.model.User;
+import com.example.platform.repository.RefreshTokenRepository;
+import com.example.platform.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Обмен refresh-токена: следующий токен той же сессии, а повторное предъявление отзывает сессию.
+ */
+class RefreshTokenRotationTest {
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final RefreshTokenService service = new RefreshTokenService(refreshTokenRepository, userRepository, jwtService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "lifetime", Duration.ofDays(30));
+    }
+
+    @Test
+    void rotationIssuesNextTokenOfSameSession() {
+        RefreshToken current = token(null);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+        User user = new User();
+        user.setId(7L);
+        user.setEnabled(true);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(user, "s-1")).thenReturn("access");
+
+        AuthTokens tokens = service.rotate("old", "curl", "10.0.0.1");
+
+        assertEquals("access", tokens.accessToken());
+        ArgumentCaptor<RefreshToken> issued = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(issued.capture());
+        assertEquals("s-1", issued.getValue().getSessionId());
+        assertEquals(current.getSessionStartedAt(), issued.getValue().getSessionStartedAt());
+        assertEquals(RefreshTokenService.hash(tokens.refreshToken()), issued.getValue().getTokenHash());
+        verify(refreshTokenRepository, never()).revokeSession(anyString(), any());
+    }
+
+    @Test
+    void reusedTokenRevokesWholeSession() {
+        RefreshToken used = token(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(used));
+
+        assertThrows(BadCredentialsException.class, () -> service.rotate("old", "curl", "10.0.0.2"));
+
+        verify(refreshTokenRepository).revokeSession(eq("s-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void concurrentExchangeOfSameTokenIsTreatedAsReuse() {
+        // Второй запрос прочитал токен до того, как первый его погасил: markUsed уже ничего не меняет
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(token(null)));
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(0);
+
+        assertThrows(BadCredentialsException.class, () -> service.rotate("old", "curl", "10.0.0.1"));
+
+        verify(refreshTokenRepository).revokeSession(eq("s-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    private static RefreshToken token(LocalDateTime usedAt) {
+        RefreshToken token = new RefreshToken();
+        token.setId(1L);
+        token.setUserId(7L);
+        token.setSessionId("s-1");
+        token.setSessionStartedAt(LocalDateTime.now().minusDays(1));
+        token.setExpiresAt(LocalDateTime.now().plusDays(29));
+        token.setUsedAt(usedAt);
+        return token;
+    }
+}
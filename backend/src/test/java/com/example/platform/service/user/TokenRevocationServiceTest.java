@@ -0,0 +1,95 @@
+package com.example.platform.service.user;
+
+import com.example.platform.repository.RevokedTokenRepository;
+import com.example.platform.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Локальная копия denylist: отзыв виден только после коммита, не теряется при обновлении из БД,
+ * а отсечка по пользователю сравнивается с точностью до миллисекунды.
+ */
+class TokenRevocationServiceTest {
+
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final TokenRevocationService service = new TokenRevocationService(
+            revokedTokenRepository, userRepository, jwtService, mock(RefreshTokenService.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "expectedTokens", 1024);
+        when(jwtService.getTokenLifetime()).thenReturn(Duration.ofHours(1));
+    }
+
+    @Test
+    void revokedTokenIsVisibleOnlyAfterCommit() {
+        Claims claims = token("jti-1", System.currentTimeMillis());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.revoke(claims);
+            assertFalse(service.isRevoked(claims));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(service.isRevoked(claims));
+    }
+
+    @Test
+    void revocationDuringRefreshIsNotLost() {
+        Claims claims = token("jti-2", System.currentTimeMillis());
+        // Отзыв закоммичен уже после того, как снимок прочитан
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenAnswer(invocation -> {
+            service.revoke(claims);
+            return List.of();
+        });
+
+        service.refresh();
+
+        assertTrue(service.isRevoked(claims));
+    }
+
+    @Test
+    void loginInSameSecondAfterRevokeAllIsAccepted() {
+        when(userRepository.setTokensNotBefore(eq(7L), any())).thenReturn(1);
+
+        service.revokeAllForUser(7L);
+
+        ArgumentCaptor<LocalDateTime> notBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).setTokensNotBefore(eq(7L), notBefore.capture());
+        long notBeforeMs = notBefore.getValue().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertTrue(service.isRevoked(token("old", notBeforeMs - 1)));
+        assertFalse(service.isRevoked(token("new", notBeforeMs)));
+    }
+
+    private static Claims token(String jti, long issuedAtMs) {
+        return Jwts.claims()
+                .id(jti)
+                .add("uid", 7L)
+                .add("iatMs", issuedAtMs)
+                .issuedAt(new Date(issuedAtMs / 1000 * 1000))
+                .expiration(new Date(issuedAtMs + 3_600_000))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.platform.service.user;
+
+import com.example.platform.dto.auth.RegistrationRequest;
+import com.example.platform.model.Enum.Role;
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * При регистрации можно выбрать только DONOR, OWNER или VOLUNTEER.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserRegistrationTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    void adminRoleCannotBeSelfAssigned() {
+        assertThrows(IllegalStateException.class, () -> userService.register(request(Role.ADMIN)));
+        assertThrows(IllegalStateException.class, () -> userService.register(request(null)));
+
+        verifyNoInteractions(userRepository, bCryptPasswordEncoder);
+    }
+
+    @Test
+    void donorCanRegister() {
+        when(bCryptPasswordEncoder.encode("secret")).thenReturn("hash");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User user = userService.register(request(Role.DONOR));
+
+        assertEquals(Role.DONOR, user.getRole());
+        assertEquals("hash", user.getPassword());
+    }
+
+    private static RegistrationRequest request(Role role) {
+        RegistrationRequest request = new RegistrationRequest();
+        request.setUsername("user@example.com");
+        request.setDisplayName("User");
+        request.setPassword("secret");
+        request.setRole(role);
+        return request;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.platform.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный драйвер сквозного сценария пожертвования: POST /api/v1/donations и ожидание ссылки оплаты.
+ * Приложение должно быть запущено с yookassa.api-url, указывающим на {@link YooKassaStubServer}.
+ *
+ * Аргументы: базовый URL приложения, id фонда, число параллельных клиентов, длительность в секундах.
+ */
+public class DonationLoadDriver {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+
+    public DonationLoadDriver(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        long fundId = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        DonationLoadDriver driver = new DonationLoadDriver(baseUrl);
+        String token = driver.registerDonor();
+        driver.run(token, fundId, concurrency, Duration.ofSeconds(seconds));
+    }
+
+    private String registerDonor() throws Exception {
+        String username = "load-" + UUID.randomUUID();
+        String credentials = objectMapper.writeValueAsString(Map.of(
+                "username", username,
+                "displayName", "Load test donor",
+                "password", "load-test-password",
+                "role", "DONOR"
+        ));
+        send(post("/register", credentials, null));
+        return send(post("/login", credentials, null)).body();
+    }
+
+    public void run(String token, long fundId, int concurrency, Duration duration) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        if (donate(token, fundId)) {
+                            latencies.add(System.nanoTime() - start);
+                        } else {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+
+        report(latencies, failures.get(), duration);
+    }
+
+    // Возвращает true, если получена ссылка оплаты
+    private boolean donate(String token, long fundId) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "fundId", fundId,
+                "amount", 100,
+                "description", "load test",
+                "returnUrl", "http://localhost:5173/funds/" + fundId
+        ));
+        HttpResponse<String> created = send(post("/api/v1/donations", body, token));
+        if (created.statusCode() != 200) {
+            return false;
+        }
+
+        JsonNode donation = objectMapper.readTree(created.body());
+        for (int attempt = 0; attempt < 5 && !donation.hasNonNull("confirmationUrl") && "PENDING".equals(donation.path("status").asText()); attempt++) {
+            HttpRequest poll = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/donations/" + donation.get("id").asLong() + "/confirmation"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            donation = objectMapper.readTree(send(poll).body());
+        }
+        return donation.hasNonNull("confirmationUrl");
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void report(List<Long> latencies, long failures, Duration duration) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        double perSecond = sorted.size() / (double) duration.toSeconds();
+
+        System.out.printf("Completed donations: %d, failures: %d%n", sorted.size(), failures);
+        System.out.printf("Throughput: %.1f donations/s%n", perSecond);
+        if (!sorted.isEmpty()) {
+            System.out.printf("Latency p50: %d ms, p99: %d ms, max: %d ms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.get(sorted.size() - 1) / 1_000_000);
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.platform.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Локальная заглушка API ЮKassa для нагрузочных и интеграционных тестов.
+ * Поддерживает создание, получение, список, подтверждение и отмену платежей,
+ * искусственную задержку, долю ошибок и асинхронные уведомления в PaymentWebhookController.
+ *
+ * Запуск отдельно: {@code ./gradlew yooKassaStub}, затем {@code yookassa.api-url=http://localhost:8089/v3}.
+ */
+public class YooKassaStubServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, ObjectNode> payments = new ConcurrentHashMap<>();
+    private final Map<String, String> paymentsByIdempotenceKey = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private final HttpClient webhookClient = HttpClient.newHttpClient();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private final HttpServer server;
+
+    private volatile Duration minLatency = Duration.ZERO;
+    private volatile Duration maxLatency = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile String webhookUrl;
+    private volatile Duration webhookDelay = Duration.ofMillis(500);
+    // Без capture=false ЮKassa сразу переводит оплаченный платеж в succeeded
+    private volatile boolean autoCapture = true;
+
+    public YooKassaStubServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v3/payments", this::handlePayments);
+    }
+
+    public YooKassaStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getApiUrl() {
+        return "http://localhost:" + getPort() + "/v3";
+    }
+
+    public YooKassaStubServer latency(Duration min, Duration max) {
+        this.minLatency = min;
+        this.maxLatency = max;
+        return this;
+    }
+
+    public YooKassaStubServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public YooKassaStubServer webhook(String url, Duration delay) {
+        this.webhookUrl = url;
+        this.webhookDelay = delay;
+        return this;
+    }
+
+    public YooKassaStubServer autoCapture(boolean autoCapture) {
+        this.autoCapture = autoCapture;
+        return this;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    public int getPaymentCount() {
+        return payments.size();
+    }
+
+    private void handlePayments(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            simulateLatency();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, 500, error("internal_server_error", "Injected failure"));
+                return;
+            }
+
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // /v3/payments[/{id}[/capture|/cancel]]
+            String method = exchange.getRequestMethod();
+            if (path.length == 3 && "POST".equals(method)) {
+                createPayment(exchange);
+            } else if (path.length == 3 && "GET".equals(method)) {
+                listPayments(exchange);
+            } else if (path.length == 4 && "GET".equals(method)) {
+                withPayment(exchange, path[3], payment -> payment);
+            } else if (path.length == 5 && "POST".equals(method) && "capture".equals(path[4])) {
+                withPayment(exchange, path[3], payment -> transition(payment, "succeeded"));
+            } else if (path.length == 5 && "POST".equals(method) && "cancel".equals(path[4])) {
+                withPayment(exchange, path[3], payment -> transition(payment, "canceled"));
+            } else {
+                respond(exchange, 404, error("not_found", "Unknown endpoint"));
+            }
+        }
+    }
+
+    private void createPayment(HttpExchange exchange) throws IOException {
+        String idempotenceKey = exchange.getRequestHeaders().getFirst("Idempotence-Key");
+        if (idempotenceKey != null && paymentsByIdempotenceKey.containsKey(idempotenceKey)) {
+            respond(exchange, 200, payments.get(paymentsByIdempotenceKey.get(idempotenceKey)));
+            return;
+        }
+
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        String id = UUID.randomUUID().toString();
+
+        ObjectNode payment = objectMapper.createObjectNode();
+        payment.put("id", id);
+        payment.put("status", "pending");
+        payment.put("paid", false);
+        payment.set("amount", request.get("amount"));
+        payment.put("description", request.path("description").asText(null));
+        payment.set("metadata", request.get("metadata"));
+        payment.put("created_at", Instant.now().toString());
+        payment.put("test", true);
+        ObjectNode confirmation = payment.putObject("confirmation");
+        confirmation.put("type", "redirect");
+        confirmation.put("return_url", request.path("confirmation").path("return_url").asText(null));
+        confirmation.put("confirmation_url", "http://localhost:" + getPort() + "/checkout/" + id);
+
+        payments.put(id, payment);
+        if (idempotenceKey != null) {
+            paymentsByIdempotenceKey.put(idempotenceKey, id);
+        }
+        respond(exchange, 200, payment);
+
+        // Имитация оплаты пользователем и уведомления от ЮKassa
+        if (webhookUrl != null) {
+            scheduler.schedule(() -> {
+                String status = autoCapture ? "succeeded" : "waiting_for_capture";
+                transition(payment, status);
+                sendWebhook("payment." + status, payment);
+            }, webhookDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Курсор — смещение в списке, отсортированном по убыванию created_at, как в ЮKassa
+    private void listPayments(HttpExchange exchange) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        Instant from = query.containsKey("created_at.gte") ? Instant.parse(query.get("created_at.gte")) : Instant.MIN;
+        Instant to = query.containsKey("created_at.lt") ? Instant.parse(query.get("created_at.lt")) : Instant.MAX;
+        int limit = Integer.parseInt(query.getOrDefault("limit", "10"));
+        int offset = Integer.parseInt(query.getOrDefault("cursor", "0"));
+
+        List<ObjectNode> matching = payments.values().stream()
+                .filter(payment -> {
+                    Instant createdAt = Instant.parse(payment.get("created_at").asText());
+                    return !createdAt.isBefore(from) && createdAt.isBefore(to);
+                })
+                .sorted(Comparator.comparing((ObjectNode payment) -> Instant.parse(payment.get("created_at").asText())).reversed())
+                .toList();
+
+        ObjectNode page = objectMapper.createObjectNode();
+        page.put("type", "list");
+        ArrayNode items = page.putArray("items");
+        int end = Math.min(matching.size(), offset + limit);
+        for (int i = offset; i < end; i++) {
+            synchronized (matching.get(i)) {
+                items.add(matching.get(i).deepCopy());
+            }
+        }
+        if (end < matching.size()) {
+            page.put("next_cursor", String.valueOf(end));
+        }
+        respond(exchange, 200, page);
+    }
+
+    private void withPayment(HttpExchange exchange, String id, UnaryOperator<ObjectNode> action) throws IOException {
+        ObjectNode payment = payments.get(id);
+        if (payment == null) {
+            respond(exchange, 404, error("not_found", "Payment not found"));
+            return;
+        }
+        respond(exchange, 200, action.apply(payment));
+    }
+
+    private ObjectNode transition(ObjectNode payment, String status) {
+        synchronized (payment) {
+            payment.put("status", status);
+            payment.put("paid", "succeeded".equals(status) || "waiting_for_capture".equals(status));
+            if ("succeeded".equals(status)) {
+                payment.put("captured_at", Instant.now().toString());
+            }
+        }
+        return payment;
+    }
+
+    private void sendWebhook(String event, ObjectNode payment) {
+        ObjectNode notification = objectMapper.createObjectNode();
+        notification.put("type", "notification");
+        notification.put("event", event);
+        notification.set("object", payment.deepCopy());
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(notification.toString()))
+                .build();
+        webhookClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void simulateLatency() {
+        long min = minLatency.toMillis();
+        long max = maxLatency.toMillis();
+        if (max <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(min + ThreadLocalRandom.current().nextLong(Math.max(1, max - min)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ObjectNode error(String code, String description) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("type", "error");
+        error.put("code", code);
+        error.put("description", description);
+        return error;
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Аргументы: порт, URL вебхука, мин. и макс. задержка (мс), доля ошибок.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        String webhook = args.length > 1 ? args[1] : "http://localhost:8080/api/v1/payments/notifications";
+        long minMs = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        long maxMs = args.length > 3 ? Long.parseLong(args[3]) : 200;
+        double errors = args.length > 4 ? Double.parseDouble(args[4]) : 0.0;
+
+        YooKassaStubServer stub = new YooKassaStubServer(port)
+                .latency(Duration.ofMillis(minMs), Duration.ofMillis(maxMs))
+                .errorRate(errors)
+                .webhook(webhook, Duration.ofMillis(500))
+                .start();
+        System.out.println("YooKassa stub listening on " + stub.getApiUrl() + ", webhooks -> " + webhook);
+    }
+}
@@ -2,7 +2,9 @@ import axios from 'axios';
 
 
 const api = axios.create({
-  baseURL: import.meta.env.VITE_BASE_URL
+  baseURL: import.meta.env.VITE_BASE_URL,
+  // refresh_token приходит в HttpOnly cookie
+  withCredentials: true
 });
 
 
@@ -19,4 +21,40 @@ api.interceptors.request.use(
   }
 );
 
-export default api;
\ No newline at end of file
+// Один обмен на все запросы, получившие 401 одновременно: повторный обмен того же токена сервер считает кражей
+let refreshing: Promise<string> | null = null;
+
+const refreshAccessToken = () => {
+  if (!refreshing) {
+    refreshing = api
+      .post<string>('/token/refresh', null, { _retried: true } as any)
+      .then((response) => {
+        localStorage.setItem('token', response.data);
+        return response.data;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const config = error.config;
+    if (error.response?.status !== 401 || !config || config._retried || !localStorage.getItem('token')) {
+      return Promise.reject(error);
+    }
+    config._retried = true;
+    try {
+      const token = await refreshAccessToken();
+      config.headers.Authorization = `Bearer ${token}`;
+      return api(config);
+    } catch {
+      return Promise.reject(error);
+    }
+  }
+);
+
+export default api;
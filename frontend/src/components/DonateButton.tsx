@@ -7,7 +7,7 @@ import { X } from 'lucide-react';
 interface DonationResponse {
   id: number;
   paymentId: string;
-  confirmationUrl: string;
+  confirmationUrl: string | null;
   status: string;
   amount: number;
   currency: string;
@@ -56,8 +56,17 @@ const DonateButton = ({ fundId, fundTitle, className = '' }: DonateButtonProps)
         returnUrl: `${window.location.origin}/funds/${fundId}`
       });
 
-      if (response.data.confirmationUrl) {
-        window.location.href = response.data.confirmationUrl;
+      // Платеж создается асинхронно: ждем ссылку оплаты long-poll запросами
+      let donation = response.data;
+      for (let attempt = 0; !donation.confirmationUrl && donation.status === 'PENDING' && attempt < 5; attempt++) {
+        const poll = await api.get<DonationResponse>(`/api/v1/donations/${donation.id}/confirmation`);
+        donation = poll.data;
+      }
+
+      if (donation.confirmationUrl) {
+        window.location.href = donation.confirmationUrl;
+      } else {
+        setError('Не удалось создать платеж. Пожалуйста, попробуйте позже.');
       }
     } catch (err: any) {
       setError(err.response?.data?.message || 'Не удалось создать пожертвование. Пожалуйста, попробуйте позже.');
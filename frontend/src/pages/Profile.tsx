@@ -27,8 +27,13 @@ const Profile = () => {
   };
 
   useEffect(() => {
-    fetchMyFunds();
-  }, []);
+    // Собственные фонды есть только у владельцев и администраторов
+    if (role === 'ADMIN' || role === 'OWNER') {
+      fetchMyFunds();
+    } else {
+      setLoading(false);
+    }
+  }, [role]);
 
   const handleDelete = () => {
     fetchMyFunds();